@@ -6,12 +6,15 @@ import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.graphics.Rect;
 import android.view.animation.DecelerateInterpolator;
+import android.view.animation.LinearInterpolator;
 
 import androidx.annotation.FloatRange;
 import androidx.annotation.NonNull;
 
 import com.pengl.williamchart.model.ChartEntry;
 import com.pengl.williamchart.model.ChartSet;
+import com.pengl.williamchart.model.ScreenPoints;
+import com.pengl.williamchart.util.EntryTimings;
 import com.pengl.williamchart.view.ChartView;
 
 import java.util.ArrayList;
@@ -85,9 +88,59 @@ public class Animation {
     private float mAnimateOverlapFactor;
 
     /**
-     * List of {@link ValueAnimator} objects for a given on going animation
+     * Single {@link ValueAnimator} driving every entry, set and color of an on going animation
      */
-    private ArrayList<ValueAnimator> mAnimators;
+    private ValueAnimator mDriver;
+
+    /**
+     * Display coordinates each set's entries animate from and to
+     */
+    private ScreenPoints[] mStart;
+    private ScreenPoints[] mEnd;
+
+    /**
+     * Delay of each entry since animation starts
+     */
+    private long[] mDelays;
+
+    /**
+     * Duration of each entry's animation
+     */
+    private long mEntryDuration;
+
+    /**
+     * Interpolated fraction of each entry in the current frame
+     */
+    private float[] mFractions;
+
+    /**
+     * Alpha each set animates to
+     */
+    private float[] mEndAlphas;
+
+    /**
+     * Entries whose color animates and the color each one animates to
+     */
+    private ArrayList<ChartEntry> mColorEntries;
+    private int[] mEndColors;
+
+    /**
+     * Sets whose alpha and colors were sampled as targets, kept when retargeting
+     * since their current alpha and colors are then halfway through the animation
+     */
+    private ChartSet[] mTargetSets;
+
+    /**
+     * Interpolates all coordinates, alphas and colors in every frame
+     */
+    private final ValueAnimator.AnimatorUpdateListener mUpdateListener =
+            new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(@NonNull ValueAnimator animation) {
+                    update(animation.getAnimatedFraction() * animation.getDuration());
+                    mCallback.onAnimationUpdate(mData);
+                }
+            };
 
     /**
      * Animation listener set to executed animation end action
@@ -100,8 +153,6 @@ public class Animation {
 
         @Override
         public void onAnimationEnd(@NonNull Animator animator) {
-            cancel();
-            mAnimators.clear();
             if (mEndAction != null) mEndAction.run();
         }
 
@@ -123,7 +174,7 @@ public class Animation {
     }
 
     private void init(int duration) {
-        mAnimators = new ArrayList<>();
+        mColorEntries = new ArrayList<>();
         mDuration = duration;
         mAlpha = 1;
         mColor = -1;
@@ -144,37 +195,29 @@ public class Animation {
 
         mData = chartView.getData();
 
-        int nSets = mData.size();
-        int nEntries = mData.get(0).size();
-
-        ArrayList<float[][]> startValues = new ArrayList<>(nSets);
-        ArrayList<float[][]> endValues = new ArrayList<>(nSets);
-        float[][] startCoords;
-        float[][] endCoords;
+        final int nSets = mData.size();
+        final int nEntries = mData.get(0).size();
+        ensureBuffers(nSets, nEntries);
 
+        // Entries rise from the zero position, or fall towards it when exiting
+        final ScreenPoints[] startValues = mIsEntering ? mStart : mEnd;
+        final ScreenPoints[] endValues = mIsEntering ? mEnd : mStart;
+        final boolean isVertical = chartView.getOrientation() == ChartView.Orientation.VERTICAL;
+        final float zero = chartView.getZeroPosition();
+        ChartSet set;
         for (int i = 0; i < nSets; i++) {
-            startCoords = new float[nEntries][2];
-            endCoords = mData.get(i).getScreenPoints();
-            for (int j = 0; j < nEntries; j++) {
-                startCoords[j][0] = chartView.getOrientation() == ChartView.Orientation.VERTICAL
-                        ? mData.get(i).getEntry(j).getX() : chartView.getZeroPosition();
-                startCoords[j][1] = chartView.getOrientation() == ChartView.Orientation.HORIZONTAL
-                        ? mData.get(i).getEntry(j).getY() : chartView.getZeroPosition();
-            }
-
-            startValues.add(startCoords);
-            endValues.add(endCoords);
+            set = mData.get(i);
+            set.getScreenPoints(endValues[i]);
+            for (int j = 0; j < nEntries; j++)
+                startValues[i].set(j, isVertical ? set.getX(j) : zero, isVertical ? zero : set.getY(j));
         }
 
-        startValues = applyStartingPosition(startValues,
+        applyStartingPosition(startValues,
                 new Rect((int) chartView.getInnerChartLeft(), (int) chartView.getInnerChartTop(),
                         (int) chartView.getInnerChartRight(), (int) chartView.getInnerChartBottom()),
                 mStartXFactor, mStartYFactor);
 
-        if (mIsEntering)
-            return animate(startValues, endValues);
-        else
-            return animate(endValues, startValues);
+        return animate(nEntries, false);
     }
 
     /**
@@ -198,10 +241,55 @@ public class Animation {
      * @param start Animation start display coordinates
      * @param end   Animation end display coordinates
      * @return Initial chart data state before starting animation
+     * @deprecated Allocates an array per entry, use
+     * {@link #prepareUpdateAnimation(ChartView, ScreenPoints[])}.
      */
+    @Deprecated
     public ArrayList<ChartSet> prepareUpdateAnimation(ArrayList<float[][]> start,
                                                       ArrayList<float[][]> end) {
-        return animate(start, end);
+        final int nSets = start.size();
+        final int nEntries = start.get(0).length;
+
+        ensureBuffers(nSets, nEntries);
+        for (int i = 0; i < nSets; i++)
+            for (int j = 0; j < nEntries; j++) {
+                mStart[i].set(j, start.get(i)[j][0], start.get(i)[j][1]);
+                mEnd[i].set(j, end.get(i)[j][0], end.get(i)[j][1]);
+            }
+
+        return animate(nEntries, false);
+    }
+
+    /**
+     * Prepare an update animation from given display coordinates towards the ones currently
+     * held by the sets. An animation still playing is retargeted: it stops, without running
+     * its end action, and the new one starts from the given coordinates, usually the ones
+     * being displayed at that moment. Coordinates are copied, no allocation takes place
+     * while the number of sets and entries doesn't change.
+     *
+     * @param chartView {@link ChartView} holding the sets with their target coordinates
+     * @param start     Start coordinates of each set
+     * @return Initial chart data state before starting animation
+     */
+    public ArrayList<ChartSet> prepareUpdateAnimation(@NonNull ChartView chartView,
+                                                      @NonNull ScreenPoints[] start) {
+        final boolean retarget = mDriver != null && mDriver.isRunning();
+        if (retarget) {
+            mDriver.removeAllListeners();
+            mDriver.cancel();
+        }
+
+        mData = chartView.getData();
+        final int nSets = mData.size();
+        final int nEntries = mData.get(0).size();
+
+        ensureBuffers(nSets, nEntries);
+        for (int i = 0; i < nSets; i++) {
+            System.arraycopy(start[i].array(), 0, mStart[i].array(), 0, nEntries * 2);
+            mData.get(i).getScreenPoints(mEnd[i]);
+        }
+
+        return animate(nEntries, retarget && hasSameTargetSets());
     }
 
     /**
@@ -228,93 +316,139 @@ public class Animation {
      *                     should start
      * @return Given values modified with new starting position.
      */
-    ArrayList<float[][]> applyStartingPosition(ArrayList<float[][]> values, Rect area,
-                                               float xStartFactor, float yStartFactor) {
-        for (int i = 0; i < values.size(); i++) {
-            for (int j = 0; j < values.get(i).length; j++) {
-                if (xStartFactor != -1)
-                    values.get(i)[j][0] = area.left + (area.right - area.left) * xStartFactor;
-                if (yStartFactor != -1)
-                    values.get(i)[j][1] = area.bottom - (area.bottom - area.top) * yStartFactor;
+    ScreenPoints[] applyStartingPosition(ScreenPoints[] values, Rect area,
+                                         float xStartFactor, float yStartFactor) {
+        final float x = area.left + (area.right - area.left) * xStartFactor;
+        final float y = area.bottom - (area.bottom - area.top) * yStartFactor;
+        for (ScreenPoints points : values) {
+            for (int j = 0; j < points.size(); j++) {
+                if (xStartFactor != -1) points.setX(j, x);
+                if (yStartFactor != -1) points.setY(j, y);
             }
         }
         return values;
     }
 
     /**
-     * Method that prepares the animation. Defines starting points, targets,
-     * distance, yadda, as well as the first set of points to be drawn.
+     * Allocate start and end coordinates, unless the current ones fit.
      *
-     * @param start X and Y start coordinates
-     * @param end   X and Y end coordinates
-     * @return array of {@link ChartSet} containing the first values to be drawn.
-     */
-    private ArrayList<ChartSet> animate(ArrayList<float[][]> start, ArrayList<float[][]> end) {
-        ValueAnimator animator;
-        mAnimators.addAll(animateEntries(start, end));
-
-        for (ChartSet set : mData) { // Animate alpha
-            animator = set.animateAlpha(mAlpha, set.getAlpha());
-            animator.setDuration(mDuration);
-            animator.setInterpolator(mInterpolator);
-            mAnimators.add(animator);
+     * @param nSets    Number of sets
+     * @param nEntries Number of entries per set
+     */
+    private void ensureBuffers(int nSets, int nEntries) {
+        if (mStart == null || mStart.length != nSets) {
+            mStart = new ScreenPoints[nSets];
+            mEnd = new ScreenPoints[nSets];
+            for (int i = 0; i < nSets; i++) {
+                mStart[i] = new ScreenPoints();
+                mEnd[i] = new ScreenPoints();
+            }
+            mEndAlphas = new float[nSets];
+        }
+        for (int i = 0; i < nSets; i++) {
+            mStart[i].resize(nEntries);
+            mEnd[i].resize(nEntries);
         }
+        if (mFractions == null || mFractions.length != nEntries)
+            mFractions = new float[nEntries];
+    }
 
-        if (mColor != -1) // Animate color
-            for (ChartSet set : mData)
-                for (ChartEntry entry : set.getEntries()) {
-                    animator = entry.animateColor(mColor, entry.getColor());
-                    animator.setDuration(mDuration);
-                    animator.setInterpolator(mInterpolator);
-                    mAnimators.add(animator);
-                }
+    /**
+     * Start animating from start to end coordinates, both already defined.
+     * A single {@link ValueAnimator} drives the whole animation, every frame each
+     * entry's progress is computed from its delay and duration.
+     *
+     * @param nEntries    Number of entries per set
+     * @param keepTargets True to keep the target alphas and colors of the animation retargeted
+     * @return array of {@link ChartSet} containing the first values to be drawn.
+     */
+    private ArrayList<ChartSet> animate(int nEntries, boolean keepTargets) {
+        final int nSets = mStart.length;
 
+        mEntryDuration = calculateEntriesDuration(nEntries, mDuration, mAnimateOverlapFactor);
+        mDelays = calculateEntriesInitTime(nEntries, mDuration, mAnimateOverlapFactor, mOrder);
         long maxDelay = 0;
-        for (ValueAnimator e : mAnimators) {
-            if (maxDelay < e.getStartDelay())
-                maxDelay = e.getStartDelay();
-            e.start();
+        for (long delay : mDelays)
+            if (maxDelay < delay) maxDelay = delay;
+
+        if (!keepTargets) {
+            for (int i = 0; i < nSets; i++) // Animate alpha
+                mEndAlphas[i] = mData.get(i).getAlpha();
+
+            mColorEntries.clear();
+            if (mColor != -1) { // Animate color
+                for (ChartSet set : mData)
+                    mColorEntries.addAll(set.getStyledEntries());
+                mEndColors = new int[mColorEntries.size()];
+                for (int i = 0; i < mEndColors.length; i++)
+                    mEndColors[i] = mColorEntries.get(i).getColor();
+            }
+
+            if (mTargetSets == null || mTargetSets.length != nSets)
+                mTargetSets = new ChartSet[nSets];
+            for (int i = 0; i < nSets; i++)
+                mTargetSets[i] = mData.get(i);
         }
 
-        animator = ValueAnimator.ofInt(0, 1); // Fuehrer
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(@NonNull ValueAnimator animation) {
-                mCallback.onAnimationUpdate(mData);
-            }
-        });
-        animator.addListener(mAnimatorListener);
-        animator.setDuration(mDuration + maxDelay);
-        animator.start();
+        update(0);
+
+        mDriver = ValueAnimator.ofFloat(0, 1); // Fuehrer
+        mDriver.addUpdateListener(mUpdateListener);
+        mDriver.addListener(mAnimatorListener);
+        mDriver.setInterpolator(new LinearInterpolator());
+        mDriver.setDuration(mDuration + maxDelay);
+        mDriver.start();
 
         return mData;
     }
 
     /**
-     * Animate entries in sequence. In this case a {@link ValueAnimator} will be created for each chart entry.
-     *
-     * @param start Animation start values
-     * @param end   Animation end values
-     * @return List of animators to animate each entry.
+     * @return True if sets animated are the ones whose alpha and colors were sampled as targets.
      */
-    private ArrayList<ValueAnimator> animateEntries(ArrayList<float[][]> start, ArrayList<float[][]> end) {
-        final int nSets = start.size();
-        final int nEntries = start.get(0).length;
-        ArrayList<ValueAnimator> result = new ArrayList<>(nSets * nEntries);
+    private boolean hasSameTargetSets() {
+        if (mTargetSets == null || mTargetSets.length != mData.size()) return false;
+        for (int i = 0; i < mTargetSets.length; i++)
+            if (mTargetSets[i] != mData.get(i)) return false;
+        return true;
+    }
 
-        long duration = calculateEntriesDuration(nEntries, mDuration, mAnimateOverlapFactor);
-        long[] delays = calculateEntriesInitTime(nEntries, mDuration, mAnimateOverlapFactor, mOrder);
-        ValueAnimator animator;
-        for (int i = 0; i < nSets; i++)
-            for (int j = 0; j < nEntries; j++) {
-                animator = mData.get(i).getEntry(j).animateXY(start.get(i)[j][0], start.get(i)[j][1],
-                        end.get(i)[j][0], end.get(i)[j][1]);
-                animator.setStartDelay(delays[j]);
-                animator.setDuration(duration);
-                animator.setInterpolator(mInterpolator);
-                result.add(animator);
-            }
-        return result;
+    /**
+     * Update coordinates, alpha and color of every set to a given moment of the animation.
+     *
+     * @param time Time elapsed since animation started
+     */
+    private void update(float time) {
+        final int nSets = mStart.length;
+        final int nEntries = mFractions.length;
+
+        float fraction;
+        for (int j = 0; j < nEntries; j++) {
+            fraction = (mEntryDuration > 0) ? (time - mDelays[j]) / mEntryDuration : 1;
+            if (fraction < 0) fraction = 0;
+            else if (fraction > 1) fraction = 1;
+            mFractions[j] = mInterpolator.getInterpolation(fraction);
+        }
+
+        ChartSet set;
+        float[] start;
+        float[] end;
+        for (int i = 0; i < nSets; i++) {
+            set = mData.get(i);
+            start = mStart[i].array();
+            end = mEnd[i].array();
+            for (int j = 0, k = 0; j < nEntries; j++, k += 2)
+                set.setCoordinates(j,
+                        start[k] + (end[k] - start[k]) * mFractions[j],
+                        start[k + 1] + (end[k + 1] - start[k + 1]) * mFractions[j]);
+        }
+
+        fraction = (mDuration > 0) ? Math.min(time / mDuration, 1) : 1;
+        fraction = mInterpolator.getInterpolation(fraction);
+        if (mAlpha != -1)
+            for (int i = 0; i < nSets; i++)
+                mData.get(i).setAlpha(mAlpha + (mEndAlphas[i] - mAlpha) * fraction);
+        for (int i = 0; i < mColorEntries.size(); i++)
+            mColorEntries.get(i).blendColor(mColor, mEndColors[i], fraction);
     }
 
     /**
@@ -327,25 +461,7 @@ public class Animation {
      * @return Array containing the animation delays for each entry.
      */
     long[] calculateEntriesInitTime(int size, long duration, float overlapFactor, int[] order) {
-
-        if (overlapFactor != 1)
-            duration = (long) (duration + duration * overlapFactor);
-
-        if (order == null) {
-            order = new int[size];
-            for (int i = 0; i < size; i++)
-                order[i] = i;
-        }
-
-        long[] result = new long[size];
-        long noOverlapInitTime;
-        for (int i = 0; i < size; i++) {
-            // Calculates the expected init time as there was with no overlap (factor = 0)
-            noOverlapInitTime = i * (duration / size);
-            // Adjust the init time to overlap
-            result[order[i]] = (noOverlapInitTime - ((long) (overlapFactor * noOverlapInitTime)));
-        }
-        return result;
+        return EntryTimings.initTimes(size, duration, overlapFactor, order);
     }
 
     /**
@@ -357,10 +473,7 @@ public class Animation {
      * @return Array containing the animation duration for each entry.
      */
     long calculateEntriesDuration(int size, long duration, float overlapFactor) {
-        // Calculates the expected duration as there was with no overlap (factor = 0)
-        final float noOverlapDuration = duration * 1.0f / size;
-        // Adjust the duration to the overlap
-        return (long) (noOverlapDuration + (duration - noOverlapDuration) * overlapFactor);
+        return EntryTimings.duration(size, duration, overlapFactor);
     }
 
     /**
@@ -369,18 +482,14 @@ public class Animation {
      * @return True if animation is running, False otherwise.
      */
     public boolean isPlaying() {
-        for (ValueAnimator animator : mAnimators)
-            if (animator.isRunning())
-                return true;
-        return false;
+        return mDriver != null && mDriver.isRunning();
     }
 
     /**
-     * Cancel every running animator.
+     * Cancel running animation.
      */
     public void cancel() {
-        for (ValueAnimator animator : mAnimators)
-            animator.cancel();
+        if (mDriver != null) mDriver.cancel();
     }
 
     /**
@@ -0,0 +1,28 @@
+package com.pengl.williamchart.listener;
+
+import com.pengl.williamchart.view.ChartView;
+
+/**
+ * Interface to define a listener of the time a chart spends in each phase of its
+ * rendering pipeline. Phases preparing the chart are reported from the thread preparing it,
+ * which is the preparation executor's one if the chart is prepared asynchronously.
+ */
+public interface OnRenderMetricsListener {
+
+    /**
+     * Called once a phase of the pipeline is over.
+     *
+     * @param phase         Phase completed
+     * @param durationNanos Time spent in phase, in nanoseconds
+     * @param nEntries      Number of entries handled by the phase, summed over every set
+     */
+    void onPhaseCompleted(ChartView.RenderPhase phase, long durationNanos, int nEntries);
+
+    /**
+     * Called every frame drawn while an animation is playing, but the first one.
+     *
+     * @param frameIntervalNanos Time since the previous frame of the animation, in nanoseconds
+     */
+    void onAnimationFrame(long frameIntervalNanos);
+
+}
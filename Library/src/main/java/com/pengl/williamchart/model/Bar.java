@@ -67,4 +67,15 @@ public class Bar extends ChartEntry {
         return this;
     }
 
+    @Override
+    void copyStyle(@NonNull ChartEntry other) {
+        super.copyStyle(other);
+        if (other instanceof Bar) {
+            final Bar bar = (Bar) other;
+            mHasGradientColor = bar.mHasGradientColor;
+            mGradientColors = bar.mGradientColors;
+            mGradientPositions = bar.mGradientPositions;
+        }
+    }
+
 }
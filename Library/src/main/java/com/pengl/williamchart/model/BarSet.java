@@ -25,9 +25,7 @@ public class BarSet extends ChartSet {
         Preconditions.checkNotNull(labels);
         Preconditions.checkNotNull(values);
 
-        int nEntries = labels.length;
-        for (int i = 0; i < nEntries; i++)
-            addBar(labels[i], values[i]);
+        addValues(labels, values);
     }
 
     /**
@@ -37,7 +35,7 @@ public class BarSet extends ChartSet {
      * @param value new {@link Bar}'s value
      */
     public void addBar(String label, float value) {
-        this.addBar(new Bar(label, value));
+        this.addValue(label, value);
     }
 
     /**
@@ -65,7 +63,7 @@ public class BarSet extends ChartSet {
      * @return {@link BarSet} self-reference.
      */
     public BarSet setColor(@ColorInt int color) {
-        for (ChartEntry e : getEntries())
+        for (ChartEntry e : getStyledEntries())
             e.setColor(color);
         return this;
     }
@@ -82,9 +80,14 @@ public class BarSet extends ChartSet {
             throw new IllegalArgumentException("Colors argument can't be null or empty.");
         Preconditions.checkNotNull(colors);
 
-        for (ChartEntry e : getEntries())
+        for (ChartEntry e : getStyledEntries())
             ((Bar) e).setGradientColor(colors, positions);
         return this;
     }
 
+    @Override
+    ChartEntry newEntry(String label, float value) {
+        return new Bar(label, value);
+    }
+
 }
@@ -10,8 +10,12 @@ import androidx.annotation.NonNull;
 import com.pengl.williamchart.view.ChartView;
 import com.pengl.williamchart.util.Preconditions;
 
+import java.util.Arrays;
+
 /**
- * Generic Data model of a {@link ChartView} entry
+ * Generic Data model of a {@link ChartView} entry.
+ * Once added to a {@link ChartSet} the entry's value and display coordinates
+ * are read from, and written to, the set's columns.
  */
 public abstract class ChartEntry implements Comparable<ChartEntry> {
 
@@ -48,6 +52,16 @@ public abstract class ChartEntry implements Comparable<ChartEntry> {
     private float mShadowDy;
     private final int[] mShadowColor;
 
+    /**
+     * Set holding value and coordinates once entry is added, null while detached
+     */
+    private ChartSet mOwner;
+
+    /**
+     * Position of entry within the owner's columns
+     */
+    private int mSlot;
+
     ChartEntry(String label, float value) {
         mLabel = label;
         mValue = value;
@@ -96,12 +110,10 @@ public abstract class ChartEntry implements Comparable<ChartEntry> {
         final ValueAnimator animator = ValueAnimator.ofPropertyValuesHolder(
                 PropertyValuesHolder.ofFloat("x", x0, x1),
                 PropertyValuesHolder.ofFloat("y", y0, y1));
-        animator.addUpdateListener(animation -> {
-            mX = (float) animation.getAnimatedValue("x");
-            mY = (float) animation.getAnimatedValue("y");
-        });
-        mX = x0;
-        mY = y0;
+        animator.addUpdateListener(animation -> setCoordinates(
+                (float) animation.getAnimatedValue("x"),
+                (float) animation.getAnimatedValue("y")));
+        setCoordinates(x0, y0);
         return animator;
     }
 
@@ -119,12 +131,28 @@ public abstract class ChartEntry implements Comparable<ChartEntry> {
         return animator;
     }
 
+    /**
+     * Set entry color to an intermediate color between two others,
+     * interpolating each ARGB channel. Meant for animations.
+     *
+     * @param color0   Start color.
+     * @param color1   End color.
+     * @param fraction Fraction from 0 (start color) to 1 (end color).
+     */
+    public void blendColor(@ColorInt int color0, @ColorInt int color1, float fraction) {
+        final int a = Color.alpha(color0) + (int) ((Color.alpha(color1) - Color.alpha(color0)) * fraction);
+        final int r = Color.red(color0) + (int) ((Color.red(color1) - Color.red(color0)) * fraction);
+        final int g = Color.green(color0) + (int) ((Color.green(color1) - Color.green(color0)) * fraction);
+        final int b = Color.blue(color0) + (int) ((Color.blue(color1) - Color.blue(color0)) * fraction);
+        mColor = Color.argb(a, r, g, b);
+    }
+
     public String getLabel() {
         return mLabel;
     }
 
     public float getValue() {
-        return mValue;
+        return (mOwner != null) ? mOwner.mValues[mSlot] : mValue;
     }
 
     /**
@@ -133,15 +161,16 @@ public abstract class ChartEntry implements Comparable<ChartEntry> {
      * @param value New value
      */
     public void setValue(float value) {
-        mValue = value;
+        if (mOwner != null) mOwner.setSlotValue(mSlot, value);
+        else mValue = value;
     }
 
     public float getX() {
-        return mX;
+        return (mOwner != null) ? mOwner.mXs[mSlot] : mX;
     }
 
     public float getY() {
-        return mY;
+        return (mOwner != null) ? mOwner.mYs[mSlot] : mY;
     }
 
     public int getColor() {
@@ -181,8 +210,64 @@ public abstract class ChartEntry implements Comparable<ChartEntry> {
      * @param y display y coordinate.
      */
     public void setCoordinates(float x, float y) {
-        mX = x;
-        mY = y;
+        if (mOwner != null) {
+            mOwner.mXs[mSlot] = x;
+            mOwner.mYs[mSlot] = y;
+        } else {
+            mX = x;
+            mY = y;
+        }
+    }
+
+    /**
+     * Attach entry to the columns of a set.
+     *
+     * @param owner Set holding the entry
+     * @param slot  Position of the entry within the set's columns
+     */
+    void bind(ChartSet owner, int slot) {
+        mOwner = owner;
+        mSlot = slot;
+    }
+
+    /**
+     * Detach entry from its set keeping the last value and coordinates it had.
+     */
+    void unbind() {
+        if (mOwner == null) return;
+        mValue = getValue();
+        mX = getX();
+        mY = getY();
+        mOwner = null;
+    }
+
+    /**
+     * Check whether another entry is styled the same way, regardless of value and coordinates.
+     *
+     * @param other Entry to compare styling with
+     * @return True if both entries are drawn with the same styling, False otherwise.
+     */
+    public boolean hasSameStyle(@NonNull ChartEntry other) {
+        return isVisible == other.isVisible
+                && mColor == other.mColor
+                && mShadowRadius == other.mShadowRadius
+                && mShadowDx == other.mShadowDx
+                && mShadowDy == other.mShadowDy
+                && Arrays.equals(mShadowColor, other.mShadowColor);
+    }
+
+    /**
+     * Copy styling, not value nor coordinates, from another entry.
+     *
+     * @param other Entry to copy styling from
+     */
+    void copyStyle(@NonNull ChartEntry other) {
+        isVisible = other.isVisible;
+        mColor = other.mColor;
+        mShadowRadius = other.mShadowRadius;
+        mShadowDx = other.mShadowDx;
+        mShadowDy = other.mShadowDy;
+        System.arraycopy(other.mShadowColor, 0, mShadowColor, 0, mShadowColor.length);
     }
 
     /**
@@ -210,8 +295,8 @@ public abstract class ChartEntry implements Comparable<ChartEntry> {
      */
     @NonNull
     public String toString() {
-        return "Label=" + mLabel + " \n" + "Value=" + mValue + "\n"
-                + "X = " + mX + "\n" + "Y = " + mY;
+        return "Label=" + mLabel + " \n" + "Value=" + getValue() + "\n"
+                + "X = " + getX() + "\n" + "Y = " + getY();
     }
 
     /**
@@ -1,26 +1,86 @@
 package com.pengl.williamchart.model;
 
+import android.animation.PropertyValuesHolder;
 import android.animation.ValueAnimator;
 
 import androidx.annotation.FloatRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.pengl.williamchart.view.ChartView;
 import com.pengl.williamchart.util.Preconditions;
+import com.pengl.williamchart.util.Ticks;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 
 /**
  * Data model containing {@link ChartEntry} elements to be used by {@link
  * ChartView}.
+ * <p>
+ * Values, labels and display coordinates are kept in parallel primitive columns.
+ * {@link ChartEntry} objects are only materialized on demand, either because they
+ * were added explicitly or because {@link #getEntry(int)} was called, and once
+ * materialized they act as a view over the columns.
  */
-public abstract class ChartSet {
+public abstract class ChartSet implements Cloneable {
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Columns holding values, labels and display coordinates of every entry
+     */
+    float[] mValues;
+    float[] mXs;
+    float[] mYs;
+    String[] mLabels;
+
+    /**
+     * Materialized entries, null until the first one is needed
+     */
+    ChartEntry[] mEntries;
+
+    /**
+     * Number of entries in the set
+     */
+    int mSize;
+
+    /**
+     * Slot holding the first entry, columns are read as a ring buffer starting here
+     */
+    private int mHead;
 
     /**
-     * Set with entries
+     * Number of values pushed into the ring since last time it was consumed
      */
-    private final ArrayList<ChartEntry> mEntries;
+    private int mAppended;
+
+    /**
+     * Incremented every time values change, allows caches derived from values to be reused
+     */
+    private int mVersion;
+
+    /**
+     * Version of values the last time they changed other than by adding or pushing values
+     */
+    private int mRewriteVersion;
+
+    /**
+     * Number of values pushed since the set was created
+     */
+    private int mPushCount;
+
+    /**
+     * Slots holding the lowest and highest values, kept up to date as values are added,
+     * -1 when unknown until values are scanned again
+     */
+    private int mMinSlot;
+    private int mMaxSlot;
+
+    /**
+     * Styling shared by every entry not yet materialized
+     */
+    private ChartEntry mTemplate;
 
     /**
      * Paint alpha value from 0 to 1
@@ -33,18 +93,117 @@ public abstract class ChartSet {
     private boolean mIsVisible;
 
     ChartSet() {
-        mEntries = new ArrayList<>();
+        mValues = new float[DEFAULT_CAPACITY];
+        mXs = new float[DEFAULT_CAPACITY];
+        mYs = new float[DEFAULT_CAPACITY];
+        mLabels = new String[DEFAULT_CAPACITY];
+        mSize = 0;
+        mHead = 0;
+        mAppended = 0;
+        mVersion = 0;
+        mMinSlot = -1;
+        mMaxSlot = -1;
         mAlpha = 1;
         mIsVisible = false;
     }
 
+    /**
+     * Create an entry of the type held by this set.
+     *
+     * @param label Entry's label
+     * @param value Entry's value
+     * @return New detached entry
+     */
+    abstract ChartEntry newEntry(String label, float value);
+
     /**
      * Add new entry to set.
      *
      * @param e New entry.
      */
     void addEntry(@NonNull ChartEntry e) {
-        mEntries.add(Preconditions.checkNotNull(e));
+        Preconditions.checkNotNull(e);
+        final int slot = addValue(e.getLabel(), e.getValue());
+        mXs[slot] = e.getX();
+        mYs[slot] = e.getY();
+        ensureEntries()[slot] = e;
+        e.bind(this, slot);
+    }
+
+    /**
+     * Add new value to set without materializing any {@link ChartEntry}.
+     *
+     * @param label New entry's label
+     * @param value New entry's value
+     * @return Slot where the value was placed.
+     */
+    int addValue(String label, float value) {
+        ensureCapacity(mSize + 1);
+        mLabels[mSize] = label;
+        mValues[mSize] = value;
+        mXs[mSize] = 0;
+        mYs[mSize] = 0;
+        mVersion++;
+        includeInExtent(mSize);
+        return mSize++;
+    }
+
+    /**
+     * Add several values to set without materializing any {@link ChartEntry}.
+     *
+     * @param labels New entries' labels
+     * @param values New entries' values
+     */
+    void addValues(@NonNull String[] labels, @NonNull float[] values) {
+        final int nEntries = values.length;
+        ensureCapacity(mSize + nEntries);
+        System.arraycopy(labels, 0, mLabels, mSize, nEntries);
+        System.arraycopy(values, 0, mValues, mSize, nEntries);
+        for (int i = 0; i < nEntries; i++)
+            includeInExtent(mSize++);
+        mVersion++;
+    }
+
+    /**
+     * Push a new value at the end of the set dropping the first one, the set's size
+     * is kept. Runs in constant time since the columns are read as a ring buffer.
+     * If the dropped entry had been materialized it gets detached from the set.
+     *
+     * @param label New entry's label
+     * @param value New entry's value
+     * @return Slot where the value was placed.
+     */
+    int push(String label, float value) {
+        if (mSize == 0)
+            throw new IllegalStateException("Can't push values into an empty set.");
+
+        final int slot = mHead;
+        if (mEntries != null && mEntries[slot] != null) {
+            mEntries[slot].unbind();
+            mEntries[slot] = null;
+        }
+        mLabels[slot] = label;
+        replaceInExtent(slot, value);
+        mXs[slot] = 0;
+        mYs[slot] = 0;
+        mHead = (slot + 1 == mSize) ? 0 : slot + 1;
+        mAppended++;
+        mPushCount++;
+        mVersion++;
+        return slot;
+    }
+
+    /**
+     * Get the number of values pushed since the last call and reset it.
+     * Those values are the last ones of the set, the remaining entries were
+     * shifted that many positions towards the start.
+     *
+     * @return Number of values pushed, never greater than the set's size.
+     */
+    public int consumeAppended() {
+        final int result = Math.min(mAppended, mSize);
+        mAppended = 0;
+        return result;
     }
 
     /**
@@ -57,9 +216,12 @@ public abstract class ChartSet {
         if (newValues.length != size())
             throw new IllegalArgumentException("New set values given doesn't match previous number of entries.");
 
-        int nEntries = size();
-        for (int i = 0; i < nEntries; i++)
-            setValue(i, newValues[i]);
+        final int nFirst = mSize - mHead;
+        System.arraycopy(newValues, 0, mValues, mHead, nFirst);
+        System.arraycopy(newValues, nFirst, mValues, 0, mHead);
+        mMinSlot = -1;
+        mMaxSlot = -1;
+        mRewriteVersion = ++mVersion;
     }
 
     /**
@@ -76,32 +238,100 @@ public abstract class ChartSet {
         return animator;
     }
 
+    /**
+     * Animate the display coordinates of a specific index between two positions.
+     *
+     * @param index Entry's index
+     * @param x0    Start x position
+     * @param y0    Start y position
+     * @param x1    End x position
+     * @param y1    End y position
+     * @return {@link ValueAnimator} object responsible to handle animation.
+     */
+    public ValueAnimator animateXY(int index, float x0, float y0, float x1, float y1) {
+        final ValueAnimator animator = ValueAnimator.ofPropertyValuesHolder(
+                PropertyValuesHolder.ofFloat("x", x0, x1),
+                PropertyValuesHolder.ofFloat("y", y0, y1));
+        animator.addUpdateListener(animation -> setCoordinates(index,
+                (float) animation.getAnimatedValue("x"),
+                (float) animation.getAnimatedValue("y")));
+        setCoordinates(index, x0, y0);
+        return animator;
+    }
+
     /**
      * Returns the number of entries in this set.
      *
      * @return the number of entries in this set.
      */
     public int size() {
-        return mEntries.size();
+        return mSize;
     }
 
     /**
      * Get set of {@link ChartEntry}s.
+     * Every entry not yet materialized will be, so prefer the index based getters
+     * when dealing with large sets.
+     * The list returned is a copy: adding entries to it, or removing them, doesn't change
+     * the set. Entries are the set's own, so changing their values or styling does.
      *
      * @return List of entries contained in the set.
      */
     public ArrayList<ChartEntry> getEntries() {
-        return mEntries;
+        ArrayList<ChartEntry> result = new ArrayList<>(mSize);
+        for (int i = 0; i < mSize; i++)
+            result.add(getEntry(i));
+        return result;
     }
 
     /**
      * Get {@link ChartEntry} from specific index.
+     * The entry is materialized, with the set's current styling, if it wasn't already.
      *
      * @param index Entry's index
      * @return {@link ChartSet} self-reference.
      */
     public ChartEntry getEntry(int index) {
-        return mEntries.get(Preconditions.checkPositionIndex(index, size()));
+        Preconditions.checkElementIndex(index, size());
+        final ChartEntry[] entries = ensureEntries();
+        final int slot = slot(index);
+        ChartEntry e = entries[slot];
+        if (e == null) {
+            e = newEntry(mLabels[slot], mValues[slot]);
+            e.copyStyle(getTemplate());
+            e.bind(this, slot);
+            entries[slot] = e;
+        }
+        return e;
+    }
+
+    /**
+     * Get the entry carrying the styling of a specific index without materializing it.
+     * If the entry hasn't been materialized the set-wide styling is returned, whose
+     * coordinates and value are meaningless. The result is meant to be read only.
+     *
+     * @param index Entry's index
+     * @return Entry holding the styling to be applied.
+     */
+    public ChartEntry getEntryStyle(int index) {
+        if (mEntries != null && mEntries[slot(index)] != null)
+            return mEntries[slot(index)];
+        return getTemplate();
+    }
+
+    /**
+     * Get entries that carry styling, meaning the set-wide styling followed
+     * by every materialized entry.
+     *
+     * @return List of entries to be styled.
+     */
+    public ArrayList<ChartEntry> getStyledEntries() {
+        ArrayList<ChartEntry> result = new ArrayList<>();
+        result.add(getTemplate());
+        if (mEntries != null)
+            for (int i = 0; i < mSize; i++)
+                if (mEntries[slot(i)] != null) result.add(mEntries[slot(i)]);
+        return result;
     }
 
     /**
@@ -111,7 +341,7 @@ public abstract class ChartSet {
      * @return Value of given index.
      */
     public float getValue(int index) {
-        return mEntries.get(Preconditions.checkPositionIndex(index, size())).getValue();
+        return mValues[slot(Preconditions.checkElementIndex(index, size()))];
     }
 
     /**
@@ -121,7 +351,42 @@ public abstract class ChartSet {
      * @return Label of given index.
      */
     public String getLabel(int index) {
-        return mEntries.get(Preconditions.checkPositionIndex(index, size())).getLabel();
+        return mLabels[slot(Preconditions.checkElementIndex(index, size()))];
+    }
+
+    /**
+     * Get display X coordinate of a specific index.
+     * Meant for render loops, index is not validated.
+     *
+     * @param index Entry's index
+     * @return Display X coordinate.
+     */
+    public float getX(int index) {
+        return mXs[slot(index)];
+    }
+
+    /**
+     * Get display Y coordinate of a specific index.
+     * Meant for render loops, index is not validated.
+     *
+     * @param index Entry's index
+     * @return Display Y coordinate.
+     */
+    public float getY(int index) {
+        return mYs[slot(index)];
+    }
+
+    /**
+     * Set the parsed display coordinates of a specific index.
+     *
+     * @param index Entry's index
+     * @param x     display x coordinate.
+     * @param y     display y coordinate.
+     */
+    public void setCoordinates(int index, float x, float y) {
+        final int slot = slot(index);
+        mXs[slot] = x;
+        mYs[slot] = y;
     }
 
     /**
@@ -130,7 +395,8 @@ public abstract class ChartSet {
      * @return Highest value entry.
      */
     public ChartEntry getMax() {
-        return Collections.max(mEntries);
+        ensureExtent();
+        return getEntry(index(mMaxSlot));
     }
 
     /**
@@ -139,25 +405,113 @@ public abstract class ChartSet {
      * @return Lowest value entry.
      */
     public ChartEntry getMin() {
-        return Collections.min(mEntries);
+        ensureExtent();
+        return getEntry(index(mMinSlot));
+    }
+
+    /**
+     * Get the highest value without materializing any {@link ChartEntry}.
+     * Kept up to date as values are added, so it's usually found in constant time.
+     *
+     * @return Highest value, 0 if set is empty.
+     */
+    public float getMaxValue() {
+        if (mSize == 0) return 0;
+        ensureExtent();
+        return mValues[mMaxSlot];
+    }
+
+    /**
+     * Get the lowest value without materializing any {@link ChartEntry}.
+     * Kept up to date as values are added, so it's usually found in constant time.
+     *
+     * @return Lowest value, 0 if set is empty.
+     */
+    public float getMinValue() {
+        if (mSize == 0) return 0;
+        ensureExtent();
+        return mValues[mMinSlot];
     }
 
     /**
      * Get screen points.
      *
      * @return Display coordinates of all entries.
+     * @deprecated Allocates an array per entry, use {@link #getScreenPoints(ScreenPoints)}.
      */
+    @Deprecated
     public float[][] getScreenPoints() {
         int nEntries = size();
         float[][] result = new float[nEntries][2];
         for (int i = 0; i < nEntries; i++) {
-            result[i][0] = mEntries.get(i).getX();
-            result[i][1] = mEntries.get(i).getY();
+            result[i][0] = getX(i);
+            result[i][1] = getY(i);
         }
 
         return result;
     }
 
+    /**
+     * Get screen points into a reusable buffer.
+     *
+     * @param result Buffer where coordinates are placed, resized to the number of entries,
+     *               or null to allocate a new one
+     * @return Display coordinates of all entries.
+     */
+    @NonNull
+    public ScreenPoints getScreenPoints(@Nullable ScreenPoints result) {
+        if (result == null) result = new ScreenPoints();
+        final float[] coords = result.resize(mSize).array();
+        int slot = mHead;
+        for (int i = 0; i < mSize; i++) {
+            coords[i * 2] = mXs[slot];
+            coords[i * 2 + 1] = mYs[slot];
+            if (++slot == mSize) slot = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Copy values, labels and display coordinates into a set detached from this one, which can
+     * be digested from another thread while this one stays untouched. Styling of materialized
+     * entries isn't copied, the snapshot is only meant to compute positions.
+     *
+     * @return Snapshot of set.
+     */
+    public ChartSet snapshot() {
+        final ChartSet result;
+        try {
+            result = (ChartSet) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        result.mValues = mValues.clone();
+        result.mXs = mXs.clone();
+        result.mYs = mYs.clone();
+        result.mLabels = mLabels.clone();
+        result.mEntries = null;
+        return result;
+    }
+
+    /**
+     * Take the display coordinates digested on a snapshot of this set.
+     * Coordinates are only taken if values didn't change since the snapshot was made.
+     *
+     * @param snapshot Snapshot previously made from this set
+     * @return True if coordinates were taken, False if set changed in the meantime.
+     */
+    public boolean adoptCoordinates(@NonNull ChartSet snapshot) {
+        Preconditions.checkNotNull(snapshot);
+        if (snapshot.mVersion != mVersion || snapshot.mSize != mSize || snapshot.mHead != mHead
+                || snapshot.mXs.length != mXs.length)
+            return false;
+
+        mXs = snapshot.mXs;
+        mYs = snapshot.mYs;
+        mAppended = snapshot.mAppended;
+        return true;
+    }
+
     /**
      * Get current set's alpha.
      *
@@ -197,12 +551,63 @@ public abstract class ChartSet {
     }
 
     /**
-     * Set {@link ChartEntry} value at specific index position.
+     * Set value of a specific slot.
      *
-     * @param index Value's index where value will be placed
+     * @param slot  Slot where value will be placed
+     * @param value New value
      */
-    private void setValue(int index, float value) {
-        mEntries.get(Preconditions.checkPositionIndex(index, size())).setValue(value);
+    void setSlotValue(int slot, float value) {
+        replaceInExtent(slot, value);
+        mRewriteVersion = ++mVersion;
+    }
+
+    /**
+     * Get the version of set's values, which changes every time any value
+     * is added or updated.
+     *
+     * @return Current version of values.
+     */
+    public int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Get the number of values pushed since the set was created.
+     *
+     * @return Number of values pushed.
+     */
+    public int getPushCount() {
+        return mPushCount;
+    }
+
+    /**
+     * Find out how many entries of the set, as it was at a given version, are still held
+     * with the same values. Those are the first entries of the set, shifted towards the
+     * start by the values pushed since, and every entry after them was added or pushed.
+     * Allows caches derived from values to only update the entries appended.
+     *
+     * @param version   Version of values
+     * @param size      Number of entries at that version
+     * @param pushCount Number of values pushed at that version
+     * @return Number of entries still held, 0 if values changed other than by adding or pushing values.
+     */
+    public int countRetained(int version, int size, int pushCount) {
+        final int shifted = mPushCount - pushCount;
+        if (mRewriteVersion > version || version > mVersion
+                || shifted < 0 || shifted >= size || size > mSize)
+            return 0;
+        return size - shifted;
+    }
+
+    /**
+     * @return True if any entry has shadow defined, False otherwise.
+     */
+    public boolean hasShadow() {
+        if (mTemplate != null && mTemplate.hasShadow()) return true;
+        if (mEntries != null)
+            for (ChartEntry e : mEntries)
+                if (e != null && e.hasShadow()) return true;
+        return false;
     }
 
     /**
@@ -214,10 +619,145 @@ public abstract class ChartSet {
      * @param color  Color
      */
     void setShadow(float radius, float dx, float dy, int color) {
-        for (ChartEntry e : getEntries())
+        for (ChartEntry e : getStyledEntries())
             e.setShadow(radius, dx, dy, color);
     }
 
+    /**
+     * Get the styling shared by every entry not yet materialized.
+     *
+     * @return Template entry.
+     */
+    private ChartEntry getTemplate() {
+        if (mTemplate == null)
+            mTemplate = newEntry(null, 0);
+        return mTemplate;
+    }
+
+    /**
+     * Widen the extent of values with the one held by a new slot.
+     * If the extent is unknown it stays so.
+     *
+     * @param slot Slot holding the new value
+     */
+    private void includeInExtent(int slot) {
+        if (mSize == 0) {
+            mMinSlot = slot;
+            mMaxSlot = slot;
+            return;
+        }
+        if (mMinSlot == -1) return;
+        if (mValues[slot] < mValues[mMinSlot]) mMinSlot = slot;
+        if (mValues[slot] > mValues[mMaxSlot]) mMaxSlot = slot;
+    }
+
+    /**
+     * Replace the value of a slot keeping the extent of values. Only when the replaced
+     * value was the lowest or highest and the new one doesn't keep it so the extent is
+     * left unknown, to be found out the next time it's needed.
+     *
+     * @param slot  Slot whose value is replaced
+     * @param value New value
+     */
+    private void replaceInExtent(int slot, float value) {
+        final float old = mValues[slot];
+        mValues[slot] = value;
+        if (mMinSlot == -1) return;
+        if (slot == mMinSlot && value > old || slot == mMaxSlot && value < old) {
+            mMinSlot = -1;
+            mMaxSlot = -1;
+            return;
+        }
+        if (value < mValues[mMinSlot]) mMinSlot = slot;
+        if (value > mValues[mMaxSlot]) mMaxSlot = slot;
+    }
+
+    /**
+     * Scan every value to find out the extent, only if unknown.
+     */
+    private void ensureExtent() {
+        if (mMinSlot != -1 || mSize == 0) return;
+        // Every slot up to size holds an entry, whatever the head
+        mMinSlot = Ticks.minIndex(mValues, 0, mSize);
+        mMaxSlot = Ticks.maxIndex(mValues, 0, mSize);
+    }
+
+    /**
+     * Map a slot into the index of the entry it holds.
+     *
+     * @param slot Slot within the columns
+     * @return Entry's index.
+     */
+    private int index(int slot) {
+        final int index = slot - mHead;
+        return (index >= 0) ? index : index + mSize;
+    }
+
+    /**
+     * Map an entry index into the slot holding it.
+     *
+     * @param index Entry's index
+     * @return Slot within the columns.
+     */
+    private int slot(int index) {
+        final int slot = mHead + index;
+        return (slot < mSize) ? slot : slot - mSize;
+    }
+
+    private ChartEntry[] ensureEntries() {
+        if (mEntries == null)
+            mEntries = new ChartEntry[mValues.length];
+        return mEntries;
+    }
+
+    private void ensureCapacity(int capacity) {
+        unroll();
+        if (capacity <= mValues.length) return;
+
+        final int newCapacity = Math.max(capacity, mValues.length + (mValues.length >> 1));
+        mValues = Arrays.copyOf(mValues, newCapacity);
+        mXs = Arrays.copyOf(mXs, newCapacity);
+        mYs = Arrays.copyOf(mYs, newCapacity);
+        mLabels = Arrays.copyOf(mLabels, newCapacity);
+        if (mEntries != null)
+            mEntries = Arrays.copyOf(mEntries, newCapacity);
+    }
+
+    /**
+     * Rotate columns so that the first entry is placed again in the first slot.
+     */
+    private void unroll() {
+        if (mHead == 0) return;
+
+        mValues = rotate(mValues);
+        mXs = rotate(mXs);
+        mYs = rotate(mYs);
+        mLabels = rotate(mLabels, new String[mLabels.length]);
+        if (mEntries != null) {
+            mEntries = rotate(mEntries, new ChartEntry[mEntries.length]);
+            for (int i = 0; i < mSize; i++)
+                if (mEntries[i] != null) mEntries[i].bind(this, i);
+        }
+        if (mMinSlot != -1) {
+            mMinSlot = index(mMinSlot);
+            mMaxSlot = index(mMaxSlot);
+        }
+        mHead = 0;
+    }
+
+    private float[] rotate(float[] src) {
+        final float[] result = new float[src.length];
+        System.arraycopy(src, mHead, result, 0, mSize - mHead);
+        System.arraycopy(src, 0, result, mSize - mHead, mHead);
+        return result;
+    }
+
+    private <T> T[] rotate(T[] src, T[] result) {
+        System.arraycopy(src, mHead, result, 0, mSize - mHead);
+        System.arraycopy(src, 0, result, mSize - mHead, mHead);
+        return result;
+    }
+
     /**
      * Returns a string representation of this set.
      *
@@ -225,7 +765,7 @@ public abstract class ChartSet {
      */
     @NonNull
     public String toString() {
-        return mEntries.toString();
+        return getEntries().toString();
     }
 
 }
@@ -62,9 +62,7 @@ public class LineSet extends ChartSet {
         Preconditions.checkNotNull(labels);
         Preconditions.checkNotNull(values);
 
-        int nEntries = labels.length;
-        for (int i = 0; i < nEntries; i++)
-            addPoint(labels[i], values[i]);
+        addValues(labels, values);
     }
 
     private void init() {
@@ -99,7 +97,7 @@ public class LineSet extends ChartSet {
      * @param value 该点的 {@link Point} 浮点值
      */
     public void addPoint(String label, float value) {
-        this.addPoint(new Point(label, value));
+        this.addValue(label, value);
     }
 
     /**
@@ -163,10 +161,11 @@ public class LineSet extends ChartSet {
     }
 
     /**
-     * 线条是否使用阴影
+     * 线条或点是否使用阴影
      */
+    @Override
     public boolean hasShadow() {
-        return mShadowRadius != 0;
+        return mShadowRadius != 0 || super.hasShadow();
     }
 
     /**
@@ -401,7 +400,7 @@ public class LineSet extends ChartSet {
      * @return {@link LineSet} self-reference.
      */
     public LineSet setDotsColor(@ColorInt int color) {
-        for (ChartEntry e : getEntries())
+        for (ChartEntry e : getStyledEntries())
             e.setColor(color);
         return this;
     }
@@ -418,7 +417,7 @@ public class LineSet extends ChartSet {
         if (radius < 0.f)
             throw new IllegalArgumentException("Dots radius can't be < 0.");
 
-        for (ChartEntry e : getEntries())
+        for (ChartEntry e : getStyledEntries())
             ((Point) e).setRadius(radius);
 
         return this;
@@ -435,7 +434,7 @@ public class LineSet extends ChartSet {
     public LineSet setDotsStrokeThickness(@FloatRange(from = 0.f) float thickness) {
         if (thickness < 0.f)
             throw new IllegalArgumentException("Dots thickness can't be < 0.");
-        for (ChartEntry e : getEntries())
+        for (ChartEntry e : getStyledEntries())
             ((Point) e).setStrokeThickness(thickness);
         return this;
     }
@@ -449,7 +448,7 @@ public class LineSet extends ChartSet {
      * @return {@link LineSet} self-reference.
      */
     public LineSet setDotsStrokeColor(@ColorInt int color) {
-        for (ChartEntry e : getEntries())
+        for (ChartEntry e : getStyledEntries())
             ((Point) e).setStrokeColor(color);
         return this;
     }
@@ -462,7 +461,7 @@ public class LineSet extends ChartSet {
      */
     public LineSet setDotsDrawable(@NonNull Drawable drawable) {
         Preconditions.checkNotNull(drawable);
-        for (ChartEntry e : getEntries())
+        for (ChartEntry e : getStyledEntries())
             ((Point) e).setDrawable(drawable);
         return this;
     }
@@ -481,4 +480,9 @@ public class LineSet extends ChartSet {
         mShadowColor[3] = Color.green(color);
     }
 
+    @Override
+    ChartEntry newEntry(String label, float value) {
+        return new Point(label, value);
+    }
+
 }
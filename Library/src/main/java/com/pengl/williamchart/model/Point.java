@@ -146,4 +146,28 @@ public class Point extends ChartEntry {
         return this;
     }
 
+    @Override
+    public boolean hasSameStyle(@NonNull ChartEntry other) {
+        if (!super.hasSameStyle(other) || !(other instanceof Point)) return false;
+        final Point point = (Point) other;
+        return mHasStroke == point.mHasStroke
+                && mStrokeThickness == point.mStrokeThickness
+                && mStrokeColor == point.mStrokeColor
+                && mRadius == point.mRadius
+                && mDrawable == point.mDrawable;
+    }
+
+    @Override
+    void copyStyle(@NonNull ChartEntry other) {
+        super.copyStyle(other);
+        if (other instanceof Point) {
+            final Point point = (Point) other;
+            mHasStroke = point.mHasStroke;
+            mStrokeThickness = point.mStrokeThickness;
+            mStrokeColor = point.mStrokeColor;
+            mRadius = point.mRadius;
+            mDrawable = point.mDrawable;
+        }
+    }
+
 }
@@ -0,0 +1,93 @@
+package com.pengl.williamchart.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Display coordinates of a number of entries, interleaved in a single float array
+ * as x0, y0, x1, y1... The array only grows, so a buffer can be reused for any number
+ * of entries without allocating once it has been large enough.
+ */
+public final class ScreenPoints {
+
+    private static final float[] EMPTY = new float[0];
+
+    /**
+     * Interleaved x and y coordinates
+     */
+    private float[] mCoords;
+
+    /**
+     * Number of points
+     */
+    private int mSize;
+
+    public ScreenPoints() {
+        mCoords = EMPTY;
+        mSize = 0;
+    }
+
+    /**
+     * @param size Number of points
+     */
+    public ScreenPoints(int size) {
+        mCoords = EMPTY;
+        resize(size);
+    }
+
+    /**
+     * Change the number of points. Coordinates of points kept are preserved,
+     * the array is only reallocated if not large enough.
+     *
+     * @param size Number of points
+     * @return {@link ScreenPoints} self-reference.
+     */
+    public ScreenPoints resize(int size) {
+        if (size < 0) throw new IllegalArgumentException("Size can't be negative.");
+        if (size * 2 > mCoords.length)
+            mCoords = Arrays.copyOf(mCoords, size * 2);
+        mSize = size;
+        return this;
+    }
+
+    /**
+     * @return Number of points.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public float getX(int index) {
+        return mCoords[index * 2];
+    }
+
+    public float getY(int index) {
+        return mCoords[index * 2 + 1];
+    }
+
+    public void set(int index, float x, float y) {
+        mCoords[index * 2] = x;
+        mCoords[index * 2 + 1] = y;
+    }
+
+    public void setX(int index, float x) {
+        mCoords[index * 2] = x;
+    }
+
+    public void setY(int index, float y) {
+        mCoords[index * 2 + 1] = y;
+    }
+
+    /**
+     * Interleaved coordinates, point i at 2i and 2i + 1. The array may be larger
+     * than twice the number of points, and is replaced when resized beyond its length.
+     *
+     * @return Array holding the coordinates.
+     */
+    @NonNull
+    public float[] array() {
+        return mCoords;
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.pengl.williamchart.model;
+
+import androidx.annotation.NonNull;
+
+import com.pengl.williamchart.util.Preconditions;
+import com.pengl.williamchart.view.ChartView;
+import com.pengl.williamchart.view.LineChartView;
+
+import java.util.Arrays;
+
+/**
+ * 固定容量的 {@link LineSet}，用于实时数据流（例如传感器数据）。
+ * 数据集创建时即被填满，每追加一个数值，最早的数值被丢弃，窗口整体向前移动，
+ * 追加操作的时间复杂度为 O(1)。
+ * <p>
+ * 追加数据后调用 {@link ChartView#notifyDataAppended()}，{@link LineChartView}
+ * 只会计算新数据的坐标，已有的坐标只做平移。
+ * 如果数据的范围无法预先确定，建议通过 setAxisBorderValues 固定数值轴的范围。
+ */
+public class StreamingLineSet extends LineSet {
+
+    private static final String DEFAULT_LABEL = "";
+
+    /**
+     * @param capacity 窗口中点的数量
+     */
+    public StreamingLineSet(int capacity) {
+        this(capacity, 0);
+    }
+
+    /**
+     * @param capacity     窗口中点的数量
+     * @param initialValue 填充窗口的初始值
+     */
+    public StreamingLineSet(int capacity, float initialValue) {
+        super();
+
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be greater than 0.");
+
+        final String[] labels = new String[capacity];
+        final float[] values = new float[capacity];
+        Arrays.fill(labels, DEFAULT_LABEL);
+        Arrays.fill(values, initialValue);
+        addValues(labels, values);
+    }
+
+    /**
+     * 追加一个数值，同时丢弃最早的数值
+     *
+     * @param value 新的数值
+     * @return {@link StreamingLineSet} self-reference.
+     */
+    public StreamingLineSet append(float value) {
+        push(DEFAULT_LABEL, value);
+        return this;
+    }
+
+    /**
+     * 追加一个数值，同时丢弃最早的数值
+     *
+     * @param label 新的数值的标签
+     * @param value 新的数值
+     * @return {@link StreamingLineSet} self-reference.
+     */
+    public StreamingLineSet append(String label, float value) {
+        push(label, value);
+        return this;
+    }
+
+    /**
+     * 按顺序追加多个数值，同时丢弃相同数量的最早的数值。
+     * 超过容量的部分只保留最后的数值。
+     *
+     * @param values 新的数值
+     * @return {@link StreamingLineSet} self-reference.
+     */
+    public StreamingLineSet appendAll(@NonNull float[] values) {
+        Preconditions.checkNotNull(values);
+        final int start = Math.max(0, values.length - getCapacity());
+        for (int i = start; i < values.length; i++)
+            push(DEFAULT_LABEL, values[i]);
+        return this;
+    }
+
+    /**
+     * 窗口中点的数量，等同于 {@link #size()}
+     */
+    public int getCapacity() {
+        return size();
+    }
+
+    /**
+     * 容量固定，新增的点会替换最早的点
+     */
+    @Override
+    int addValue(String label, float value) {
+        return push(label, value);
+    }
+
+}
@@ -1,13 +1,18 @@
 package com.pengl.williamchart.renderer;
 
 import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
 
-import com.pengl.williamchart.model.ChartEntry;
 import com.pengl.williamchart.model.ChartSet;
+import com.pengl.williamchart.util.Ticks;
 import com.pengl.williamchart.view.ChartView.Style;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 
 /**
  * Class responsible to control vertical measures, positions, yadda yadda.
@@ -17,20 +22,50 @@ public abstract class AxisRenderer {
 
     private static final float DEFAULT_STEPS_NUMBER = 3;
 
+    /**
+     * Maximum number of label strings whose metrics are kept
+     */
+    private static final int MAX_CACHED_METRICS = 4096;
+
     /**
      * Label's values formatted
      */
     ArrayList<String> labels;
 
+    /**
+     * Width and height of each label, NaN until measured
+     */
+    float[] labelsWidth;
+    float[] labelsHeight;
+
     /**
      * Label's values
      */
-    ArrayList<Float> labelsValues;
+    float[] labelsValues;
+
+    /**
+     * Labels position, only when handling values.
+     * Labels taken from data are positioned by {@link #labelPos(int)}
+     */
+    float[] labelsPos;
+
+    /**
+     * Position of the first label slot along the axis
+     */
+    float labelsStart;
+
+    /**
+     * Range of label indices fitting the axis, fractional indices are allowed.
+     * Only applies to labels taken from data, a negative end means all labels fit.
+     */
+    float viewportStart;
+    float viewportEnd;
 
     /**
-     * Labels position
+     * Range of label indices actually fitting the axis once disposed
      */
-    ArrayList<Float> labelsPos;
+    float visibleStart;
+    float visibleEnd;
 
     /**
      * Refers to the coordinate X in case of Axis Y and coordinate Y in case of Axis X
@@ -85,7 +120,29 @@ public abstract class AxisRenderer {
      */
     private float step;
 
+    /**
+     * Desired number of steps between borders, -1 to use the default
+     */
+    private int tickCount;
+
+    /**
+     * Whether borders, and step, were found out from data rather than defined
+     */
+    private boolean bordersFromData;
+    private boolean stepFromData;
+
+    /**
+     * Width and height of label strings measured by the labels paint, only valid
+     * while its text size and typeface are kept
+     */
+    private final HashMap<String, float[]> metricsCache;
+    private float metricsTextSize;
+    private Typeface metricsTypeface;
+    private final Rect metricsBounds;
+
     AxisRenderer() {
+        metricsCache = new HashMap<>();
+        metricsBounds = new Rect();
         reset();
     }
 
@@ -97,26 +154,66 @@ public abstract class AxisRenderer {
      */
     public void init(ArrayList<ChartSet> data, Style style) {
         if (handleValues) {
+            final boolean stepFromData = !hasStep();
+            boolean bordersFromData = false;
             if (minLabelValue == 0 && maxLabelValue == 0) {
                 float[] borders;
                 if (hasStep()) borders = findBorders(data, step); // no borders, step
-                else borders = findBorders(data); // no borders, no step
+                else if (hasTickCount()) { // no borders, nice step
+                    borders = findBorders(data);
+                    step = Ticks.niceStep(borders[0], borders[1], tickCount);
+                    borders = Ticks.niceBorders(borders[0], borders[1], step);
+                } else borders = findBorders(data); // no borders, no step
                 minLabelValue = borders[0];
                 maxLabelValue = borders[1];
+                bordersFromData = true;
             }
             if (!hasStep()) setBorderValues(minLabelValue, maxLabelValue);
+            this.bordersFromData = bordersFromData;
+            this.stepFromData = stepFromData;
             labelsValues = calculateValues(minLabelValue, maxLabelValue, step);
             labels = convertToLabelsFormat(labelsValues, style.getLabelsFormat());
         } else {
             labels = extractLabels(data);
         }
         this.style = style;
+        resetLabelsMetrics();
+    }
+
+    /**
+     * Refresh labels taken from data without measuring nor positioning them again.
+     * Meant for sets whose window shifted, number of labels must be kept.
+     *
+     * @param data Chart data
+     */
+    public void updateLabels(ArrayList<ChartSet> data) {
+        if (handleValues) return;
+
+        final ChartSet set = data.get(0);
+        final int size = set.size();
+        for (int i = 0; i < size; i++)
+            labels.set(i, set.getLabel(i));
+        resetLabelsMetrics();
+    }
+
+    /**
+     * Forget borders and step found out from data, keeping the ones defined,
+     * so that they are found out again from the next data.
+     */
+    public void resetDataBorders() {
+        if (bordersFromData) {
+            minLabelValue = 0;
+            maxLabelValue = 0;
+        }
+        if (stepFromData) step = -1;
+        bordersFromData = false;
+        stepFromData = false;
     }
 
     /**
      * Dispose the various axis elements in their positions.
      */
-    void dispose() {
+    public void dispose() {
         axisPosition = defineAxisPosition();
         labelsStaticPos = defineStaticLabelsPosition(axisPosition, style.getAxisLabelsSpacing());
     }
@@ -217,11 +314,16 @@ public abstract class AxisRenderer {
     public void reset() {
         mandatoryBorderSpacing = 0;
         step = -1;
+        tickCount = -1;
         labelsStaticPos = 0;
         axisPosition = 0;
         minLabelValue = 0;
         maxLabelValue = 0;
+        viewportStart = 0;
+        viewportEnd = -1;
         handleValues = false;
+        bordersFromData = false;
+        stepFromData = false;
     }
 
     /**
@@ -244,18 +346,124 @@ public abstract class AxisRenderer {
      */
     void defineLabelsPosition(float innerStart, float innerEnd) {
         int nLabels = labels.size();
+        visibleStart = (handleValues || viewportEnd < 0) ? 0 : viewportStart;
+        visibleEnd = (handleValues || viewportEnd < 0) ? nLabels - 1 : viewportEnd;
+        final float span = visibleEnd - visibleStart;
         screenStep = (innerEnd
                 - innerStart
                 - style.getAxisTopSpacing()
                 - style.getAxisBorderSpacing() * 2
-                - mandatoryBorderSpacing * 2) / (nLabels - 1);
+                - mandatoryBorderSpacing * 2) / span;
+
+        labelsStart = innerStart + style.getAxisBorderSpacing() + mandatoryBorderSpacing;
+        if (!handleValues) return;
+
+        if (labelsPos == null || labelsPos.length != nLabels)
+            labelsPos = new float[nLabels];
+        for (int i = 0; i < nLabels; i++)
+            labelsPos[i] = labelsStart + i * screenStep;
+    }
+
+    /**
+     * Position along the axis of a label taken from data.
+     *
+     * @param index Index of label
+     * @return Display coordinate of label.
+     */
+    float labelPos(int index) {
+        final float offset = index - visibleStart;
+        return (offset == 0) ? labelsStart : labelsStart + offset * screenStep;
+    }
+
+    /**
+     * Restrict the labels taken from data fitting the axis to a range. Labels out of it are
+     * neither drawn nor positioned within the axis. Takes effect next time the axis is disposed.
+     *
+     * @param start First label index fitting the axis, fractional indices are allowed
+     * @param end   Last label index fitting the axis, negative to fit all labels
+     */
+    public void setViewport(float start, float end) {
+        viewportStart = start;
+        viewportEnd = end;
+    }
 
-        labelsPos = new ArrayList<>(nLabels);
-        float currPos = innerStart + style.getAxisBorderSpacing() + mandatoryBorderSpacing;
-        for (int i = 0; i < nLabels; i++) {
-            labelsPos.add(currPos);
-            currPos += screenStep;
+    /**
+     * @return Index of first label, taken from data, within the axis.
+     */
+    public int getFirstVisibleIndex() {
+        return Math.max(0, (int) Math.floor(visibleStart));
+    }
+
+    /**
+     * @return Index of last label, taken from data, within the axis.
+     */
+    public int getLastVisibleIndex() {
+        return Math.min(labels.size() - 1, (int) Math.ceil(visibleEnd));
+    }
+
+    /**
+     * Measure a range of labels, unless already measured, so that drawing them doesn't
+     * require any measurement. Label strings measured before with the same text size
+     * and typeface aren't measured again.
+     *
+     * @param first First label to measure
+     * @param last  Last label to measure, inclusive
+     */
+    void measureLabels(int first, int last) {
+        for (int i = first; i <= last; i++)
+            measureLabel(i);
+    }
+
+    /**
+     * @param index Index of label
+     * @return Width of label, as measured by {@link Paint#measureText(String)}.
+     */
+    float labelWidth(int index) {
+        measureLabel(index);
+        return labelsWidth[index];
+    }
+
+    /**
+     * @param index Index of label
+     * @return Height of label's bounds.
+     */
+    float labelHeight(int index) {
+        measureLabel(index);
+        return labelsHeight[index];
+    }
+
+    private void measureLabel(int index) {
+        if (labelsWidth.length != labels.size()) resetLabelsMetrics();
+        if (!Float.isNaN(labelsWidth[index])) return;
+
+        final Paint paint = style.getLabelsPaint();
+        if (paint.getTextSize() != metricsTextSize || paint.getTypeface() != metricsTypeface
+                || metricsCache.size() >= MAX_CACHED_METRICS) {
+            metricsCache.clear();
+            metricsTextSize = paint.getTextSize();
+            metricsTypeface = paint.getTypeface();
+        }
+
+        final String label = labels.get(index);
+        float[] metrics = metricsCache.get(label);
+        if (metrics == null) {
+            paint.getTextBounds(label, 0, label.length(), metricsBounds);
+            metrics = new float[]{paint.measureText(label), metricsBounds.height()};
+            metricsCache.put(label, metrics);
+        }
+        labelsWidth[index] = metrics[0];
+        labelsHeight[index] = metrics[1];
+    }
+
+    /**
+     * Forget the metrics of each label, labels changed.
+     */
+    private void resetLabelsMetrics() {
+        if (labelsWidth == null || labelsWidth.length != labels.size()) {
+            labelsWidth = new float[labels.size()];
+            labelsHeight = new float[labels.size()];
         }
+        Arrays.fill(labelsWidth, Float.NaN);
     }
 
     /**
@@ -266,11 +474,10 @@ public abstract class AxisRenderer {
      * @return An {@link ArrayList} containing the set of strings generated
      * from axis values and to be displayed along the axis.
      */
-    ArrayList<String> convertToLabelsFormat(ArrayList<Float> values, DecimalFormat format) {
-        int size = values.size();
-        ArrayList<String> result = new ArrayList<>(size);
-        for (int i = 0; i < size; i++)
-            result.add(format.format(values.get(i)));
+    ArrayList<String> convertToLabelsFormat(float[] values, DecimalFormat format) {
+        ArrayList<String> result = new ArrayList<>(values.length);
+        for (float value : values)
+            result.add(format.format(value));
         return result;
     }
 
@@ -300,17 +507,12 @@ public abstract class AxisRenderer {
         float min = Integer.MAX_VALUE;
 
         for (ChartSet set : sets) {  // Find minimum and maximum value out of all chart entries
-            for (ChartEntry e : set.getEntries()) {
-                if (e.getValue() >= max) max = e.getValue();
-                if (e.getValue() <= min) min = e.getValue();
-            }
+            if (set.size() == 0) continue;
+            if (set.getMaxValue() >= max) max = set.getMaxValue();
+            if (set.getMinValue() <= min) min = set.getMinValue();
         }
 
-        if (max < 0) max = 0;
-        if (min > 0) min = 0;
-        if (min == max) max += 1;  // All given set values are equal
-
-        return new float[]{min, max};
+        return Ticks.borders(min, max);
     }
 
     /**
@@ -323,7 +525,7 @@ public abstract class AxisRenderer {
      */
     float[] findBorders(ArrayList<ChartSet> sets, float step) {
         float[] borders = findBorders(sets);
-        while ((borders[1] - borders[0]) % step != 0) borders[1] += 1; // Assure border fit step
+        borders[1] = Ticks.fitMaximum(borders[0], borders[1], step); // Assure border fit step
 
         return borders;
     }
@@ -335,20 +537,11 @@ public abstract class AxisRenderer {
      * @param min  Minimum axis value
      * @param max  Maximum axis value
      * @param step Step to be used between axis values
-     * @return {@link ArrayList} containing all values to be displayed along the axis.
-     */
-    ArrayList<Float> calculateValues(float min, float max, float step) {
-        ArrayList<Float> result = new ArrayList<>();
-        float pos = min;
-        while (pos <= max) {
-            result.add(pos);
-            pos += step;
-        }
-
-        // Set max Y axis label in case isn't already there
-        if (result.get(result.size() - 1) < max) result.add(pos);
-
-        return result;
+     * @return All values to be displayed along the axis, the last one
+     * goes beyond max in case max isn't a multiple of step.
+     */
+    float[] calculateValues(float min, float max, float step) {
+        return Ticks.values(min, max, step);
     }
 
     /**
@@ -415,6 +608,18 @@ public abstract class AxisRenderer {
      */
     public void setStep(int step) {
         this.step = step;
+        stepFromData = false;
+    }
+
+    /**
+     * Set the desired number of steps between axis borders. When borders are found out
+     * from data, a nice step (1, 2 or 5 times a power of 10) dividing them into about
+     * that number of steps is used and borders are extended to multiples of it.
+     *
+     * @param count Desired number of steps, -1 to use the default
+     */
+    public void setTickCount(int count) {
+        tickCount = count;
     }
 
     /**
@@ -447,6 +652,13 @@ public abstract class AxisRenderer {
         return (step != -1);
     }
 
+    /**
+     * @return True if number of steps has been defined, False otherwise.
+     */
+    boolean hasTickCount() {
+        return (tickCount > 0);
+    }
+
     /**
      * Set renderer to handle {@link ChartSet} values, not labels.
      *
@@ -499,6 +711,8 @@ public abstract class AxisRenderer {
         this.step = step;
         maxLabelValue = max;
         minLabelValue = min;
+        bordersFromData = false;
+        stepFromData = false;
     }
 
     /**
@@ -510,7 +724,7 @@ public abstract class AxisRenderer {
      * @param max The maximum value that Y axis will have as a label
      */
     public void setBorderValues(float min, float max) {
-        if (!hasStep()) step = (max - min) / DEFAULT_STEPS_NUMBER;
+        if (!hasStep()) step = (max - min) / (hasTickCount() ? tickCount : DEFAULT_STEPS_NUMBER);
         setBorderValues(min, max, step);
     }
 
@@ -532,4 +746,27 @@ public abstract class AxisRenderer {
         INSIDE
     }
 
+    public enum LabelThinning {
+
+        /**
+         * 绘制所有标签
+         */
+        NONE,
+
+        /**
+         * 每隔k个标签绘制一个，k为不重叠的最小间隔
+         */
+        STRIDE,
+
+        /**
+         * 同STRIDE，并始终绘制第一个和最后一个标签
+         */
+        PIN_ENDS,
+
+        /**
+         * 依次绘制不与上一个已绘制标签重叠的标签
+         */
+        GREEDY
+    }
+
 }
\ No newline at end of file
@@ -3,11 +3,22 @@ package com.pengl.williamchart.renderer;
 import android.graphics.Canvas;
 import android.graphics.Paint.Align;
 
+import com.pengl.williamchart.model.ChartSet;
+import com.pengl.williamchart.util.Ticks;
+
+import java.util.ArrayList;
+
 /**
  * X轴
  */
 public class XRenderer extends AxisRenderer {
 
+    /**
+     * Indices of the labels taken from data to be drawn
+     */
+    private int[] drawnLabels;
+    private int nDrawnLabels;
+
     public XRenderer() {
         super();
     }
@@ -21,6 +32,63 @@ public class XRenderer extends AxisRenderer {
 
         defineMandatoryBorderSpacing(mInnerChartLeft, mInnerChartRight);
         defineLabelsPosition(mInnerChartLeft, mInnerChartRight);
+        if (!handleValues) defineDrawnLabels();
+    }
+
+    @Override
+    public void updateLabels(ArrayList<ChartSet> data) {
+        super.updateLabels(data);
+        if (!handleValues && style != null) defineDrawnLabels();
+    }
+
+    /**
+     * 选择需要绘制的来自数据的标签，使其互不重叠。
+     * Labels are measured once here so drawing costs depend on the axis width
+     * rather than on the number of labels.
+     */
+    private void defineDrawnLabels() {
+        final int first = getFirstVisibleIndex();
+        final int last = getLastVisibleIndex();
+        final LabelThinning thinning = style.getXLabelsThinning();
+
+        if (drawnLabels == null || drawnLabels.length < last - first + 1)
+            drawnLabels = new int[last - first + 1];
+        nDrawnLabels = 0;
+
+        if (thinning == LabelThinning.NONE || style.getXLabelsPositioning() == LabelPosition.NONE
+                || last <= first) {
+            for (int i = first; i <= last; i++)
+                drawnLabels[nDrawnLabels++] = i;
+            return;
+        }
+
+        float maxWidth = 0;
+        for (int i = first; i <= last; i++)
+            if (labelWidth(i) > maxWidth) maxWidth = labelWidth(i);
+        final float gap = style.getAxisLabelsSpacing();
+
+        if (thinning == LabelThinning.GREEDY) {
+            float right = -Float.MAX_VALUE;
+            float left;
+            for (int i = first; i <= last; i++) {
+                left = labelPos(i) - labelsWidth[i] / 2;
+                if (left >= right + gap) {
+                    drawnLabels[nDrawnLabels++] = i;
+                    right = left + labelsWidth[i];
+                }
+            }
+            return;
+        }
+
+        // Stride anchored to the first label of data so labels don't change while panning
+        final int stride = Math.max(1, (int) Math.ceil((maxWidth + gap) / screenStep));
+        final boolean pinEnds = thinning == LabelThinning.PIN_ENDS;
+        if (pinEnds) drawnLabels[nDrawnLabels++] = first;
+        for (int i = (first + stride - 1) / stride * stride; i <= last; i += stride) {
+            if (pinEnds && (i - first < stride || last - i < stride)) continue;
+            drawnLabels[nDrawnLabels++] = i;
+        }
+        if (pinEnds) drawnLabels[nDrawnLabels++] = last;
     }
 
     @Override
@@ -59,11 +127,18 @@ public class XRenderer extends AxisRenderer {
         if (style.getXLabelsPositioning() != LabelPosition.NONE) {
             style.getLabelsPaint().setTextAlign(Align.CENTER);
 
-            int nLabels = labels.size();
-            for (int i = 0; i < nLabels; i++) {
-                canvas.drawText(labels.get(i), labelsPos.get(i), labelsStaticPos,
-                        style.getLabelsPaint());
-
+            if (handleValues) {
+                int nLabels = labels.size();
+                for (int i = 0; i < nLabels; i++)
+                    canvas.drawText(labels.get(i), labelsPos[i], labelsStaticPos,
+                            style.getLabelsPaint());
+            } else {
+                int i;
+                for (int k = 0; k < nDrawnLabels; k++) {
+                    i = drawnLabels[k];
+                    canvas.drawText(labels.get(i), labelPos(i), labelsStaticPos,
+                            style.getLabelsPaint());
+                }
             }
         }
     }
@@ -72,14 +147,14 @@ public class XRenderer extends AxisRenderer {
     public float parsePos(int index, double value) {
         if (handleValues)
             return (float) (mInnerChartLeft
-                    + (((value - minLabelValue) * screenStep) / (labelsValues.get(1) - minLabelValue)));
-        else return labelsPos.get(index);
+                    + Ticks.offset(value, minLabelValue, labelsValues[1] - minLabelValue, screenStep));
+        else return labelPos(index);
     }
 
     @Override
     protected float measureInnerChartLeft(int left) {
         return (style.getXLabelsPositioning() != LabelPosition.NONE)
-                ? style.getLabelsPaint().measureText(labels.get(0)) / 2
+                ? labelWidth(0) / 2
                 : left;
     }
 
@@ -95,7 +170,7 @@ public class XRenderer extends AxisRenderer {
         float lastLabelWidth = 0;
         // 修复尝试通过索引-1访问标签时可能发生的崩溃。
         if (!labels.isEmpty())
-            lastLabelWidth = style.getLabelsPaint().measureText(labels.get(labels.size() - 1));
+            lastLabelWidth = labelWidth(labels.size() - 1);
 
         float rightBorder = 0;
         if (style.getXLabelsPositioning() != LabelPosition.NONE
@@ -3,7 +3,10 @@ package com.pengl.williamchart.renderer;
 import android.graphics.Canvas;
 import android.graphics.Paint.Align;
 
-import java.util.Collections;
+import com.pengl.williamchart.model.ChartSet;
+import com.pengl.williamchart.util.Ticks;
+
+import java.util.ArrayList;
 
 /**
  * Y轴
@@ -22,6 +25,21 @@ public class YRenderer extends AxisRenderer {
         super.dispose();
         defineMandatoryBorderSpacing(mInnerChartTop, mInnerChartBottom);
         defineLabelsPosition(mInnerChartTop, mInnerChartBottom);
+        measureDrawnLabels();
+    }
+
+    @Override
+    public void updateLabels(ArrayList<ChartSet> data) {
+        super.updateLabels(data);
+        if (!handleValues && style != null) measureDrawnLabels();
+    }
+
+    /**
+     * 预先测量需要绘制的标签，绘制时不再测量
+     */
+    private void measureDrawnLabels() {
+        if (handleValues) measureLabels(0, labels.size() - 1);
+        else measureLabels(getFirstVisibleIndex(), getLastVisibleIndex());
     }
 
     @Override
@@ -64,11 +82,18 @@ public class YRenderer extends AxisRenderer {
                             ? Align.RIGHT
                             : Align.LEFT);
 
-            int nLabels = labels.size();
-            for (int i = 0; i < nLabels; i++) {
-                canvas.drawText(labels.get(i), labelsStaticPos,
-                        labelsPos.get(i) + style.getLabelHeight(labels.get(i)) / 2f,
-                        style.getLabelsPaint());
+            if (handleValues) {
+                int nLabels = labels.size();
+                for (int i = 0; i < nLabels; i++)
+                    canvas.drawText(labels.get(i), labelsStaticPos,
+                            labelsPos[i] + labelsHeight[i] / 2f,
+                            style.getLabelsPaint());
+            } else {
+                int last = getLastVisibleIndex();
+                for (int i = getFirstVisibleIndex(); i <= last; i++)
+                    canvas.drawText(labels.get(i), labelsStaticPos,
+                            labelPos(i) + labelsHeight[i] / 2f,
+                            style.getLabelsPaint());
             }
         }
     }
@@ -76,16 +101,31 @@ public class YRenderer extends AxisRenderer {
     @Override
     void defineLabelsPosition(float innerStart, float innerEnd) {
         super.defineLabelsPosition(innerStart, innerEnd);
-        Collections.reverse(labelsPos);
+        if (!handleValues) return;
+        float aux;
+        for (int i = 0, j = labelsPos.length - 1; i < j; i++, j--) {
+            aux = labelsPos[i];
+            labelsPos[i] = labelsPos[j];
+            labelsPos[j] = aux;
+        }
+    }
+
+    /**
+     * Labels taken from data are placed from bottom to top.
+     */
+    @Override
+    float labelPos(int index) {
+        final float offset = visibleEnd - index;
+        return (offset == 0) ? labelsStart : labelsStart + offset * screenStep;
     }
 
     @Override
     public float parsePos(int index, double value) {
         if (handleValues)
             return (float) (mInnerChartBottom
-                    - (((value - minLabelValue) * screenStep) / (labelsValues.get(1) - minLabelValue)));
+                    - Ticks.offset(value, minLabelValue, labelsValues[1] - minLabelValue, screenStep));
         else
-            return labelsPos.get(index);
+            return labelPos(index);
     }
 
     @Override
@@ -97,8 +137,8 @@ public class YRenderer extends AxisRenderer {
         if (style.getYLabelsPositioning() == LabelPosition.OUTSIDE) {
             float aux;
             float maxLabelLength = 0;
-            for (String label : labels) {
-                aux = style.getLabelsPaint().measureText(label);
+            for (int i = 0; i < labels.size(); i++) {
+                aux = labelWidth(i);
                 if (aux > maxLabelLength)
                     maxLabelLength = aux;
             }
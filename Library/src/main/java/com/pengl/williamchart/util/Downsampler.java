@@ -0,0 +1,148 @@
+package com.pengl.williamchart.util;
+
+/**
+ * Downsampling utilities selecting which points of a line to draw when there are
+ * more points than pixels available. Points are expected to be sorted by x.
+ * Both algorithms return indices into the given coordinates, always including the
+ * first and the last point of the range.
+ */
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets. Range is split in buckets and from each one is kept
+     * the point forming the largest triangle with the previously kept point and the
+     * average point of the next bucket.
+     *
+     * @param xs        X coordinates
+     * @param ys        Y coordinates
+     * @param begin     First index of range, inclusive
+     * @param end       Last index of range, exclusive
+     * @param threshold Maximum number of points to keep
+     * @param out       Where the kept indices are placed, length must be at least the
+     *                  minimum between threshold and the range's length
+     * @return Number of indices placed in out.
+     */
+    public static int lttb(float[] xs, float[] ys, int begin, int end, int threshold, int[] out) {
+        final int nPoints = end - begin;
+        if (threshold >= nPoints || threshold < 3) return identity(begin, end, out);
+
+        final float bucketSize = (float) (nPoints - 2) / (threshold - 2);
+        int nOut = 0;
+        int a = begin;
+        out[nOut++] = a;
+
+        int rangeStart;
+        int rangeEnd;
+        int avgStart;
+        int avgEnd;
+        float avgX;
+        float avgY;
+        float area;
+        float maxArea;
+        int maxIndex;
+        for (int i = 0; i < threshold - 2; i++) {
+
+            // Average point of next bucket
+            avgStart = begin + (int) ((i + 1) * bucketSize) + 1;
+            avgEnd = Math.min(begin + (int) ((i + 2) * bucketSize) + 1, end);
+            avgX = 0;
+            avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += xs[j];
+                avgY += ys[j];
+            }
+            avgX /= (avgEnd - avgStart);
+            avgY /= (avgEnd - avgStart);
+
+            // Point of current bucket with largest triangle
+            rangeStart = begin + (int) (i * bucketSize) + 1;
+            rangeEnd = begin + (int) ((i + 1) * bucketSize) + 1;
+            maxArea = -1;
+            maxIndex = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                area = Math.abs((xs[a] - avgX) * (ys[j] - ys[a])
+                        - (xs[a] - xs[j]) * (avgY - ys[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = j;
+                }
+            }
+
+            out[nOut++] = maxIndex;
+            a = maxIndex;
+        }
+
+        out[nOut++] = end - 1;
+        return nOut;
+    }
+
+    /**
+     * Minimum and maximum per column. Range is split in columns of equal width and from
+     * each one are kept the points with the minimum and maximum y, in their original order.
+     *
+     * @param xs      X coordinates
+     * @param ys      Y coordinates
+     * @param begin   First index of range, inclusive
+     * @param end     Last index of range, exclusive
+     * @param start   X coordinate where the first column starts
+     * @param width   Width covered by all columns
+     * @param columns Number of columns
+     * @param out     Where the kept indices are placed, length must be at least the
+     *                minimum between twice the columns plus 2 and the range's length
+     * @return Number of indices placed in out.
+     */
+    public static int minMax(float[] xs, float[] ys, int begin, int end,
+                             float start, float width, int columns, int[] out) {
+        final int nPoints = end - begin;
+        if (columns * 2 + 2 >= nPoints || columns < 1 || width <= 0)
+            return identity(begin, end, out);
+
+        int nOut = 0;
+        out[nOut++] = begin;
+
+        int column = -1;
+        int minIndex = -1;
+        int maxIndex = -1;
+        int c;
+        for (int i = begin + 1; i < end - 1; i++) {
+            c = (int) ((xs[i] - start) * columns / width);
+            if (c < 0) c = 0;
+            else if (c >= columns) c = columns - 1;
+
+            if (c != column) {
+                nOut = flush(minIndex, maxIndex, out, nOut);
+                column = c;
+                minIndex = i;
+                maxIndex = i;
+            } else {
+                if (ys[i] < ys[minIndex]) minIndex = i;
+                if (ys[i] > ys[maxIndex]) maxIndex = i;
+            }
+        }
+        nOut = flush(minIndex, maxIndex, out, nOut);
+
+        out[nOut++] = end - 1;
+        return nOut;
+    }
+
+    private static int flush(int minIndex, int maxIndex, int[] out, int nOut) {
+        if (minIndex < 0) return nOut;
+        if (minIndex == maxIndex) {
+            out[nOut++] = minIndex;
+        } else {
+            out[nOut++] = Math.min(minIndex, maxIndex);
+            out[nOut++] = Math.max(minIndex, maxIndex);
+        }
+        return nOut;
+    }
+
+    private static int identity(int begin, int end, int[] out) {
+        for (int i = begin; i < end; i++)
+            out[i - begin] = i;
+        return end - begin;
+    }
+
+}
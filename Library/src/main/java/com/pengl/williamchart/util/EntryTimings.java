@@ -0,0 +1,54 @@
+package com.pengl.williamchart.util;
+
+/**
+ * Timings of entries animated one after another, each entry starting a fraction of an
+ * entry's duration after the previous one. With an overlap factor of 0 entries follow each
+ * other, with 1 they are all animated at once.
+ */
+public final class EntryTimings {
+
+    private EntryTimings() {
+    }
+
+    /**
+     * Define the delay for each entry.
+     *
+     * @param size          Number of entries
+     * @param duration      Complete animation duration
+     * @param overlapFactor Overlap factor between entries
+     * @param order         Entries animation order, null to animate them by index
+     * @return Array containing the animation delays for each entry.
+     */
+    public static long[] initTimes(int size, long duration, float overlapFactor, int[] order) {
+
+        if (overlapFactor != 1)
+            duration = (long) (duration + duration * overlapFactor);
+
+        final long[] result = new long[size];
+        long noOverlapInitTime;
+        for (int i = 0; i < size; i++) {
+            // Calculates the expected init time as there was with no overlap (factor = 0)
+            noOverlapInitTime = i * (duration / size);
+            // Adjust the init time to overlap
+            result[(order == null) ? i : order[i]] =
+                    (noOverlapInitTime - ((long) (overlapFactor * noOverlapInitTime)));
+        }
+        return result;
+    }
+
+    /**
+     * Calculate each individual entry duration.
+     *
+     * @param size          Number of entries
+     * @param duration      Complete animation duration
+     * @param overlapFactor Overlap factor between entries
+     * @return Animation duration of every entry.
+     */
+    public static long duration(int size, long duration, float overlapFactor) {
+        // Calculates the expected duration as there was with no overlap (factor = 0)
+        final float noOverlapDuration = duration * 1.0f / size;
+        // Adjust the duration to the overlap
+        return (long) (noOverlapDuration + (duration - noOverlapDuration) * overlapFactor);
+    }
+
+}
@@ -0,0 +1,238 @@
+package com.pengl.williamchart.util;
+
+/**
+ * Level of detail pyramid holding, for buckets of 2, 4, 8... consecutive values, the index
+ * of the minimum and the maximum value of each bucket. Allows selecting the points that
+ * shape a line over any range of values touching a number of buckets instead of every value.
+ * <p>
+ * Values can be appended, and dropped from the start, updating only the buckets holding
+ * the values appended. Values and buckets are therefore kept in ring buffers, addressed by
+ * the position of each value since the pyramid was built rather than by its index.
+ */
+public final class MinMaxPyramid {
+
+    /**
+     * Position of first value above which positions are brought back to 0, building again
+     */
+    private static final int MAX_FIRST = 1 << 30;
+
+    /**
+     * Values the pyramid is built on, value at position p is held at p modulo capacity
+     */
+    private float[] mValues;
+
+    /**
+     * Position of the first value
+     */
+    private int mFirst;
+
+    private int mSize;
+
+    /**
+     * Position of minimum and maximum value of each bucket, level k has buckets of 2^(k+1)
+     * values. Bucket b of level k is held at b modulo the length of the level
+     */
+    private int[][] mMins;
+    private int[][] mMaxs;
+
+    /**
+     * Build pyramid over a set of values. The values are copied.
+     *
+     * @param values Values
+     * @param size   Number of values to take into account
+     */
+    public void build(float[] values, int size) {
+        if (mValues == null || mValues.length < size || mValues.length > 2 * size)
+            mValues = new float[Math.max(size, 1)];
+        System.arraycopy(values, 0, mValues, 0, size);
+        rebuild(size);
+    }
+
+    /**
+     * Append a value at the end.
+     *
+     * @param value Value appended
+     */
+    public void append(float value) {
+        if (mValues == null || mSize == mValues.length) {
+            // Grow, building again over the values unrolled
+            final float[] values = new float[Math.max(8, mSize * 2)];
+            for (int i = 0; i < mSize; i++)
+                values[i] = value(mFirst + i);
+            mValues = values;
+            rebuild(mSize);
+        }
+
+        final int position = mFirst + mSize;
+        mValues[position % mValues.length] = value;
+        mSize++;
+        for (int k = 0; k < mMins.length; k++)
+            updateBucket(k, position >> (k + 1));
+    }
+
+    /**
+     * Drop a number of values from the start.
+     *
+     * @param nValues Number of values dropped, not greater than the pyramid's size
+     */
+    public void removeFirst(int nValues) {
+        if (nValues < 0 || nValues > mSize)
+            throw new IllegalArgumentException("Number of values dropped out of range.");
+        mFirst += nValues;
+        mSize -= nValues;
+
+        if (mFirst > MAX_FIRST) {
+            final float[] values = new float[mValues.length];
+            for (int i = 0; i < mSize; i++)
+                values[i] = value(mFirst + i);
+            mValues = values;
+            rebuild(mSize);
+        }
+    }
+
+    /**
+     * Select the indices shaping the line over a range of values, using the finest level
+     * whose buckets within the range don't exceed a given number. From each bucket the
+     * minimum and maximum are selected, first and last index of the range are always selected.
+     *
+     * @param begin      First index of range, inclusive
+     * @param end        Last index of range, exclusive
+     * @param maxBuckets Maximum number of buckets to go through
+     * @param out        Where the selected indices are placed in ascending order,
+     *                   length must be at least twice maxBuckets plus 6
+     * @return Number of indices placed in out.
+     */
+    public int select(int begin, int end, int maxBuckets, int[] out) {
+        int nOut = 0;
+        if (end <= begin) return nOut;
+
+        // Positions from here on
+        begin += mFirst;
+        end += mFirst;
+
+        // Find level, -1 meaning raw values
+        int level = -1;
+        int shift = 0;
+        while ((((end - 1) >> shift) - (begin >> shift) + 1) > maxBuckets && level + 1 < mMins.length) {
+            level++;
+            shift++;
+        }
+
+        out[nOut++] = begin - mFirst;
+        if (level == -1) {
+            for (int i = begin + 1; i < end; i++)
+                out[nOut++] = i - mFirst;
+            return nOut;
+        }
+
+        final int firstBucket = begin >> shift;
+        final int lastBucket = (end - 1) >> shift;
+        final int levelLength = mMins[level].length;
+        int min;
+        int max;
+        for (int bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            final int bucketBegin = bucket << shift;
+            final int bucketEnd = Math.min((bucket + 1) << shift, mFirst + mSize);
+            if (bucketBegin >= begin && bucketEnd <= end) {
+                min = mMins[level][bucket % levelLength];
+                max = mMaxs[level][bucket % levelLength];
+            } else { // Bucket partially out of range, scan the values within it
+                min = Math.max(begin, bucketBegin);
+                max = min;
+                for (int i = min + 1; i < Math.min(end, bucketEnd); i++) {
+                    if (value(i) < value(min)) min = i;
+                    if (value(i) > value(max)) max = i;
+                }
+            }
+            nOut = add(Math.min(min, max) - mFirst, out, nOut);
+            nOut = add(Math.max(min, max) - mFirst, out, nOut);
+        }
+
+        return add(end - 1 - mFirst, out, nOut);
+    }
+
+    /**
+     * @return Number of values the pyramid holds.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Build every level over the first values held, placed from position 0.
+     * Levels are sized for as many values as can be held.
+     *
+     * @param size Number of values
+     */
+    private void rebuild(int size) {
+        mFirst = 0;
+        mSize = size;
+
+        final int capacity = mValues.length;
+        int nLevels = 0;
+        for (int n = capacity; n > 1; n = (n + 1) / 2)
+            nLevels++;
+        if (mMins == null || mMins.length != nLevels) {
+            mMins = new int[nLevels][];
+            mMaxs = new int[nLevels][];
+        }
+
+        int nBuckets;
+        for (int k = 0; k < nLevels; k++) {
+            // Values held may start anywhere within a bucket, so they may touch one more
+            nBuckets = (capacity >> (k + 1)) + 2;
+            if (mMins[k] == null || mMins[k].length != nBuckets) {
+                mMins[k] = new int[nBuckets];
+                mMaxs[k] = new int[nBuckets];
+            }
+            for (int b = 0; b <= (size - 1) >> (k + 1); b++)
+                updateBucket(k, b);
+        }
+    }
+
+    /**
+     * Find the minimum and maximum of a bucket out of the level below. Buckets holding
+     * positions dropped, or not yet appended, are never read by {@link #select} as a whole,
+     * so whatever they end up holding doesn't matter.
+     *
+     * @param k      Level
+     * @param bucket Bucket of level
+     */
+    private void updateBucket(int k, int bucket) {
+        final int last = mFirst + mSize - 1;
+        final int length = mMins[k].length;
+        int a;
+        int b;
+        if (k == 0) {
+            a = 2 * bucket;
+            b = (a + 1 <= last) ? a + 1 : a;
+            mMins[0][bucket % length] = (value(b) < value(a)) ? b : a;
+            mMaxs[0][bucket % length] = (value(b) > value(a)) ? b : a;
+            return;
+        }
+
+        final int[] prevMins = mMins[k - 1];
+        final int[] prevMaxs = mMaxs[k - 1];
+        final int prevLength = prevMins.length;
+        final int child = 2 * bucket;
+        final boolean hasSecond = ((child + 1) << k) <= last;
+        // Minimum
+        a = prevMins[child % prevLength];
+        b = hasSecond ? prevMins[(child + 1) % prevLength] : a;
+        mMins[k][bucket % length] = (value(b) < value(a)) ? b : a;
+        // Maximum
+        a = prevMaxs[child % prevLength];
+        b = hasSecond ? prevMaxs[(child + 1) % prevLength] : a;
+        mMaxs[k][bucket % length] = (value(b) > value(a)) ? b : a;
+    }
+
+    private float value(int position) {
+        return mValues[position % mValues.length];
+    }
+
+    private static int add(int index, int[] out, int nOut) {
+        if (out[nOut - 1] < index) out[nOut++] = index;
+        return nOut;
+    }
+
+}
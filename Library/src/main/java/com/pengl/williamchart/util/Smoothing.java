@@ -0,0 +1,68 @@
+package com.pengl.williamchart.util;
+
+/**
+ * Control points of the cubic Bezier segments smoothing a line through its points.
+ * The tangent at each point is parallel to the line joining its two neighbours, and
+ * control points are placed along it at a fraction of that line's length.
+ * Coordinates are computed one axis at a time.
+ */
+public final class Smoothing {
+
+    /**
+     * Fraction of the distance between neighbours at which control points are placed
+     */
+    public static final float DEFAULT_FACTOR = 0.15f;
+
+    private Smoothing() {
+    }
+
+    /**
+     * Control point leaving a point, towards the next one.
+     *
+     * @param point    Coordinate of the point
+     * @param previous Coordinate of the point before it
+     * @param next     Coordinate of the point after it
+     * @param factor   Smoothing factor
+     * @return Coordinate of the first control point of the segment starting at point.
+     */
+    public static float startControl(float point, float previous, float next, float factor) {
+        return point + (factor * (next - previous));
+    }
+
+    /**
+     * Control point arriving at a point, from the previous one.
+     *
+     * @param point    Coordinate of the point
+     * @param previous Coordinate of the point before it
+     * @param next     Coordinate of the point after it
+     * @param factor   Smoothing factor
+     * @return Coordinate of the second control point of the segment ending at point.
+     */
+    public static float endControl(float point, float previous, float next, float factor) {
+        return point - (factor * (next - previous));
+    }
+
+    /**
+     * Control points of every segment of a line. Each point's tangent is taken from the
+     * points next to it in the arrays, so the first and the last point are only used as
+     * neighbours of the line's ends and don't start or end any segment.
+     *
+     * @param xs     X coordinates
+     * @param ys     Y coordinates
+     * @param size   Number of points, including both outer neighbours, at least 3
+     * @param factor Smoothing factor
+     * @param out    Where control points of the segment starting at point k + 1 are placed
+     *               at 4k, as first control x, y and second control x, y. Length must
+     *               be at least 4 * (size - 3)
+     */
+    public static void controls(float[] xs, float[] ys, int size, float factor, float[] out) {
+        int o = 0;
+        for (int i = 1; i < size - 2; i++) {
+            out[o++] = startControl(xs[i], xs[i - 1], xs[i + 1], factor);
+            out[o++] = startControl(ys[i], ys[i - 1], ys[i + 1], factor);
+            out[o++] = endControl(xs[i + 1], xs[i], xs[i + 2], factor);
+            out[o++] = endControl(ys[i + 1], ys[i], ys[i + 2], factor);
+        }
+    }
+
+}
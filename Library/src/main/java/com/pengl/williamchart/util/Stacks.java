@@ -0,0 +1,76 @@
+package com.pengl.williamchart.util;
+
+/**
+ * Sums of values stacked one on top of the other, positive values stacked upwards
+ * and negative values downwards from 0.
+ */
+public final class Stacks {
+
+    private Stacks() {
+    }
+
+    /**
+     * Sum the positive, and the negative, values of an index across sets.
+     *
+     * @param values   Values of every set, indexed by set and then by entry
+     * @param nSets    Number of sets
+     * @param index    Index of entry
+     * @param positive Where the sum of positive values is placed, at index
+     * @param negative Where the sum of negative values is placed, at index
+     */
+    public static void sum(float[][] values, int nSets, int index, float[] positive, float[] negative) {
+        float positiveSum = 0;
+        float negativeSum = 0;
+        float value;
+        for (int j = 0; j < nSets; j++) {
+            value = values[j][index];
+            if (value >= 0) positiveSum += value;
+            else negativeSum += value;
+        }
+        positive[index] = positiveSum;
+        negative[index] = negativeSum;
+    }
+
+    /**
+     * Sum the positive, and the negative, values of a number of indices across sets.
+     *
+     * @param values   Values of every set, indexed by set and then by entry
+     * @param nSets    Number of sets
+     * @param changed  Indices to be summed, flags are cleared once summed. Null to sum every index
+     * @param size     Number of entries
+     * @param positive Where the sums of positive values are placed
+     * @param negative Where the sums of negative values are placed
+     */
+    public static void sum(float[][] values, int nSets, boolean[] changed, int size,
+                           float[] positive, float[] negative) {
+        for (int i = 0; i < size; i++) {
+            if (changed != null) {
+                if (!changed[i]) continue;
+                changed[i] = false;
+            }
+            sum(values, nSets, i, positive, negative);
+        }
+    }
+
+    /**
+     * Find the integer extent fitting every stack, including 0.
+     *
+     * @param positive Sums of positive values
+     * @param negative Sums of negative values
+     * @param size     Number of stacks
+     * @return Int vector containing both minimum and maximum value.
+     */
+    public static int[] extent(float[] positive, float[] negative, int size) {
+        int max = 0;
+        int min = 0;
+        int value;
+        for (int i = 0; i < size; i++) {
+            value = (int) Math.ceil(positive[i]);
+            if (max < value) max = value;
+            value = (int) Math.ceil(negative[i] * -1) * -1;
+            if (min > value) min = value;
+        }
+        return new int[]{min, max};
+    }
+
+}
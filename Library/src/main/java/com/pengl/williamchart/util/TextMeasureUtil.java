@@ -8,11 +8,21 @@ import android.graphics.Rect;
  */
 public class TextMeasureUtil {
 
+    /**
+     * 每个线程复用一个Rect，避免每次测量都分配
+     */
+    private static final ThreadLocal<Rect> BOUNDS = new ThreadLocal<Rect>() {
+        @Override
+        protected Rect initialValue() {
+            return new Rect();
+        }
+    };
+
     /**
      * 获取文本的宽度
      */
     public static int getTextWidth(Paint mPaint, String text) {
-        Rect bounds = new Rect();
+        Rect bounds = BOUNDS.get();
         mPaint.getTextBounds(text, 0, text.length(), bounds);
         return bounds.width();
     }
@@ -21,7 +31,7 @@ public class TextMeasureUtil {
      * 获取文本的高度
      */
     public static int getTextHeight(Paint mPaint, String text) {
-        Rect bounds = new Rect();
+        Rect bounds = BOUNDS.get();
         mPaint.getTextBounds(text, 0, text.length(), bounds);
         return bounds.height();
     }
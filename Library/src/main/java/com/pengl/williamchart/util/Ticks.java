@@ -0,0 +1,172 @@
+package com.pengl.williamchart.util;
+
+/**
+ * Axis ticks based on nice numbers, 1, 2 or 5 times a power of 10, as described by
+ * Heckbert in "Nice numbers for graph labels". Borders and ticks are calculated in a
+ * number of operations proportional to the number of ticks, not to the axis range.
+ */
+public final class Ticks {
+
+    /**
+     * Tolerance, relative to the step, when checking if a range is a multiple of a step
+     */
+    private static final double EPSILON = 1e-6;
+
+    private Ticks() {
+    }
+
+    /**
+     * Find a nice number approximately equal to a value.
+     *
+     * @param value Value to be approximated, must be greater than 0
+     * @param round True to round to the closest nice number, False to take the
+     *              smallest nice number not lower than value
+     * @return Nice number.
+     */
+    public static double niceNumber(double value, boolean round) {
+        final double exponent = Math.floor(Math.log10(value));
+        final double fraction = value / Math.pow(10, exponent);
+        final double niceFraction;
+        if (round) {
+            if (fraction < 1.5) niceFraction = 1;
+            else if (fraction < 3) niceFraction = 2;
+            else if (fraction < 7) niceFraction = 5;
+            else niceFraction = 10;
+        } else {
+            if (fraction <= 1) niceFraction = 1;
+            else if (fraction <= 2) niceFraction = 2;
+            else if (fraction <= 5) niceFraction = 5;
+            else niceFraction = 10;
+        }
+        return niceFraction * Math.pow(10, exponent);
+    }
+
+    /**
+     * Find a nice step dividing a range into about a number of steps.
+     *
+     * @param min    Minimum value of range
+     * @param max    Maximum value of range, must be greater than min
+     * @param nSteps Desired number of steps
+     * @return Nice step.
+     */
+    public static float niceStep(float min, float max, int nSteps) {
+        if (max <= min)
+            throw new IllegalArgumentException("Maximum must be greater than minimum.");
+        final double range = niceNumber(max - min, false);
+        return (float) niceNumber(range / Math.max(1, nSteps), true);
+    }
+
+    /**
+     * Find the lowest of a range of values.
+     *
+     * @param values Values
+     * @param from   First index of range, inclusive
+     * @param to     Last index of range, exclusive, greater than from
+     * @return Index of the first lowest value.
+     */
+    public static int minIndex(float[] values, int from, int to) {
+        int result = from;
+        for (int i = from + 1; i < to; i++)
+            if (values[i] < values[result]) result = i;
+        return result;
+    }
+
+    /**
+     * Find the highest of a range of values.
+     *
+     * @param values Values
+     * @param from   First index of range, inclusive
+     * @param to     Last index of range, exclusive, greater than from
+     * @return Index of the first highest value.
+     */
+    public static int maxIndex(float[] values, int from, int to) {
+        int result = from;
+        for (int i = from + 1; i < to; i++)
+            if (values[i] > values[result]) result = i;
+        return result;
+    }
+
+    /**
+     * Extend the extent of chart values so that it includes 0 and isn't empty.
+     *
+     * @param min Minimum value of all entries
+     * @param max Maximum value of all entries
+     * @return Float vector containing both minimum and maximum borders.
+     */
+    public static float[] borders(float min, float max) {
+        if (max < 0) max = 0;
+        if (min > 0) min = 0;
+        if (min == max) max += 1;  // All given set values are equal
+        return new float[]{min, max};
+    }
+
+    /**
+     * Extend a range outwards to the closest multiples of a step.
+     *
+     * @param min  Minimum value of range
+     * @param max  Maximum value of range
+     * @param step Step
+     * @return Float vector containing both minimum and maximum borders.
+     */
+    public static float[] niceBorders(float min, float max, float step) {
+        return new float[]{
+                (float) (Math.floor(min / (double) step + EPSILON) * step),
+                (float) (Math.ceil(max / (double) step - EPSILON) * step)};
+    }
+
+    /**
+     * Extend the maximum of a range until the range is a multiple of a step.
+     *
+     * @param min  Minimum value of range, kept
+     * @param max  Maximum value of range
+     * @param step Step
+     * @return Maximum border.
+     */
+    public static float fitMaximum(float min, float max, float step) {
+        return (float) (min + countSteps(min, max, step) * (double) step);
+    }
+
+    /**
+     * Number of steps needed to go from a minimum to, at least, a maximum.
+     *
+     * @param min  Minimum value
+     * @param max  Maximum value
+     * @param step Step
+     * @return Number of steps, at least 1.
+     */
+    public static int countSteps(float min, float max, float step) {
+        return Math.max(1, (int) Math.ceil((max - min) / (double) step - EPSILON));
+    }
+
+    /**
+     * Calculate ticks from a minimum, every step, up to a maximum. If the range isn't a
+     * multiple of the step the last tick goes beyond the maximum.
+     *
+     * @param min  Minimum value, first tick
+     * @param max  Maximum value
+     * @param step Step between ticks, must be greater than 0
+     * @return Ticks values.
+     */
+    public static float[] values(float min, float max, float step) {
+        if (step <= 0)
+            throw new IllegalArgumentException("Step must be greater than 0.");
+        final float[] result = new float[countSteps(min, max, step) + 1];
+        for (int i = 0; i < result.length; i++)
+            result[i] = (float) (min + i * (double) step);
+        return result;
+    }
+
+    /**
+     * Distance, in pixels, from the first tick to the position of a value.
+     *
+     * @param value      Value
+     * @param min        Value of first tick
+     * @param valueStep  Difference of value between two consecutive ticks
+     * @param screenStep Distance, in pixels, between two consecutive ticks
+     * @return Distance from the first tick, negative if value is below it.
+     */
+    public static double offset(double value, float min, float valueStep, float screenStep) {
+        return ((value - min) * screenStep) / valueStep;
+    }
+
+}
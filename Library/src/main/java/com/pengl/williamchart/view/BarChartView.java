@@ -2,9 +2,6 @@ package com.pengl.williamchart.view;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.LinearGradient;
-import android.graphics.Region;
-import android.graphics.Shader;
 import android.util.AttributeSet;
 
 import com.pengl.williamchart.model.Bar;
@@ -34,31 +31,26 @@ public class BarChartView extends BaseBarChartView {
     @Override
     public void onDrawChart(Canvas canvas, ArrayList<ChartSet> data) {
         final int nSets = data.size();
-        final int nEntries = data.get(0).size();
 
         float offset;
         BarSet barSet;
         Bar bar;
 
-        for (int i = 0; i < nEntries; i++) {
+        for (int i = getFirstVisibleEntry(); i <= getLastVisibleEntry(); i++) {
 
             // Set first offset to draw a group of bars
-            offset = data.get(0).getEntry(i).getX() - drawingOffset;
+            offset = data.get(0).getX(i) - drawingOffset;
 
             for (int j = 0; j < nSets; j++) {
 
                 barSet = (BarSet) data.get(j);
-                bar = (Bar) barSet.getEntry(i);
+                bar = (Bar) barSet.getEntryStyle(i);
 
                 // If entry value is 0 it won't be drawn
                 if (!barSet.isVisible()) continue;
 
                 // Style it!
-                if (!bar.hasGradientColor()) mStyle.barPaint.setColor(bar.getColor());
-                else mStyle.barPaint.setShader(
-                        new LinearGradient(bar.getX(), this.getZeroPosition(), bar.getX(), bar.getY(),
-                                bar.getGradientColors(), bar.getGradientPositions(),
-                                Shader.TileMode.MIRROR));
+                styleBar(bar, barSet.getX(i), this.getZeroPosition(), barSet.getX(i), barSet.getY(i));
                 applyShadow(mStyle.barPaint, barSet.getAlpha(), bar.getShadowDx(), bar
                         .getShadowDy(), bar.getShadowRadius(), bar.getShadowColor());
 
@@ -69,18 +61,18 @@ public class BarChartView extends BaseBarChartView {
                 }
 
                 if (getEnableDrawValue()) {
-                    String value = style.getLabelsFormat().format(bar.getValue());
+                    String value = style.getLabelsFormat().format(barSet.getValue(i));
                     float textW = TextMeasureUtil.getTextWidth(mStyle.valuePaint, value);
                     float textH = TextMeasureUtil.getTextHeight(mStyle.valuePaint, value);
                     float textX = offset + (barWidth - textW) / 2;
-                    if (bar.getValue() >= 0) {
-                        float textY = bar.getY() - textH * 0.7f;
+                    if (barSet.getValue(i) >= 0) {
+                        float textY = barSet.getY(i) - textH * 0.7f;
                         drawBarValue(canvas, textX, textY, value);
-                        drawBar(canvas, offset, bar.getY(), offset + barWidth, this.getZeroPosition());
-                    } else if (bar.getValue() < 0) {
-                        float textY = bar.getY() + textH * 1.3f;
+                        drawBar(canvas, offset, barSet.getY(i), offset + barWidth, this.getZeroPosition());
+                    } else if (barSet.getValue(i) < 0) {
+                        float textY = barSet.getY(i) + textH * 1.3f;
                         drawBarValue(canvas, textX, textY, value);
-                        drawBar(canvas, offset, this.getZeroPosition(), offset + barWidth, bar.getY());
+                        drawBar(canvas, offset, this.getZeroPosition(), offset + barWidth, barSet.getY(i));
                     }
 //                    else {
 //                        drawBarValue(canvas, textX, bar.getY(), value);
@@ -88,10 +80,10 @@ public class BarChartView extends BaseBarChartView {
 //                    }
                 } else {
                     // Draw bar
-                    if (bar.getValue() >= 0) // Positive
-                        drawBar(canvas, offset, bar.getY(), offset + barWidth, this.getZeroPosition());
+                    if (barSet.getValue(i) >= 0) // Positive
+                        drawBar(canvas, offset, barSet.getY(i), offset + barWidth, this.getZeroPosition());
                     else // Negative
-                        drawBar(canvas, offset, this.getZeroPosition(), offset + barWidth, bar.getY());
+                        drawBar(canvas, offset, this.getZeroPosition(), offset + barWidth, barSet.getY(i));
                 }
 
                 offset += barWidth;
@@ -112,40 +104,37 @@ public class BarChartView extends BaseBarChartView {
                     - this.getInnerChartLeft()
                     - this.getBorderSpacing() * 2);
             // In case of more than one entry
-        } else calculateBarsWidth(data.size(), data.get(0).getEntry(0).getX(),
-                data.get(0).getEntry(1).getX());
+        } else calculateBarsWidth(data.size(), data.get(0).getX(getFirstVisibleEntry()),
+                data.get(0).getX(getFirstVisibleEntry() + 1));
 
         calculatePositionOffset(data.size());
     }
 
     @Override
-    void defineRegions(ArrayList<ArrayList<Region>> regions, ArrayList<ChartSet> data) {
+    void defineRegions(EntryRegions regions, ArrayList<ChartSet> data) {
 
         final int nSets = data.size();
-        final int nEntries = data.get(0).size();
 
         float offset;
         BarSet barSet;
-        Bar bar;
 
-        for (int i = 0; i < nEntries; i++) {
+        for (int i = getFirstVisibleEntry(); i <= getLastVisibleEntry(); i++) {
 
             // Set first offset to draw a group of bars
-            offset = data.get(0).getEntry(i).getX() - drawingOffset;
+            offset = data.get(0).getX(i) - drawingOffset;
 
             for (int j = 0; j < nSets; j++) {
 
                 barSet = (BarSet) data.get(j);
-                bar = (Bar) barSet.getEntry(i);
 
-                if (bar.getValue() > 0 && (int) bar.getY() != (int) this.getZeroPosition())
-                    regions.get(j).get(i).set((int) offset, (int) bar.getY(),
+                if (barSet.getValue(i) > 0 && (int) barSet.getY(i) != (int) this.getZeroPosition())
+                    regions.set(j, i, (int) offset, (int) barSet.getY(i),
                             (int) (offset += barWidth), (int) this.getZeroPosition());
-                else if (bar.getValue() < 0 && (int) bar.getY() != (int) this.getZeroPosition())
-                    regions.get(j).get(i).set((int) offset, (int) this.getZeroPosition(),
-                            (int) (offset += barWidth), (int) bar.getY());
+                else if (barSet.getValue(i) < 0 && (int) barSet.getY(i) != (int) this.getZeroPosition())
+                    regions.set(j, i, (int) offset, (int) this.getZeroPosition(),
+                            (int) (offset += barWidth), (int) barSet.getY(i));
                 else // If bar.getValue() == 0, force region to 1 pixel
-                    regions.get(j).get(i).set((int) offset, (int) this.getZeroPosition(),
+                    regions.set(j, i, (int) offset, (int) this.getZeroPosition(),
                             (int) (offset += barWidth), (int) this.getZeroPosition() + 1);
 
                 // If last bar of group no set spacing is necessary
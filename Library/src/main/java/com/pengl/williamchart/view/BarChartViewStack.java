@@ -2,10 +2,6 @@ package com.pengl.williamchart.view;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.LinearGradient;
-import android.graphics.Rect;
-import android.graphics.Region;
-import android.graphics.Shader;
 import android.util.AttributeSet;
 
 import com.pengl.williamchart.model.Bar;
@@ -49,16 +45,15 @@ public class BarChartViewStack extends BaseStackBarChartView {
         BarSet barSet;
         Bar bar;
         int dataSize = data.size();
-        int setSize = data.get(0).size();
         float zeroPosition = this.getZeroPosition();
 
-        for (int i = 0; i < setSize; i++) {
+        for (int i = getFirstVisibleEntry(); i <= getLastVisibleEntry(); i++) {
 
             // If bar needs background
             if (mStyle.hasBarBackground) {
-                drawBarBackground(canvas, (int) (data.get(0).getEntry(i).getX() - barWidth / 2),
+                drawBarBackground(canvas, (int) (data.get(0).getX(i) - barWidth / 2),
                         (int) this.getInnerChartTop(),
-                        (int) (data.get(0).getEntry(i).getX() + barWidth / 2),
+                        (int) (data.get(0).getX(i) + barWidth / 2),
                         (int) this.getInnerChartBottom());
             }
 
@@ -78,30 +73,28 @@ public class BarChartViewStack extends BaseStackBarChartView {
             for (int j = 0; j < dataSize; j++) {
 
                 barSet = (BarSet) data.get(j);
-                bar = (Bar) barSet.getEntry(i);
+                bar = (Bar) barSet.getEntryStyle(i);
 
-                barSize = Math.abs(zeroPosition - bar.getY());
+                barSize = Math.abs(zeroPosition - barSet.getY(i));
 
                 // If:
                 // Bar not visible OR
                 // Bar value equal to 0 OR
                 // Size of bar < 2 (Due to the loss of precision)
                 // Then no need to draw
-                if (!barSet.isVisible() || bar.getValue() == 0 || barSize < 2) continue;
+                if (!barSet.isVisible() || barSet.getValue(i) == 0 || barSize < 2) continue;
 
                 applyShadow(mStyle.barPaint, barSet.getAlpha(), bar.getShadowDx(), bar
                         .getShadowDy(), bar.getShadowRadius(), bar.getShadowColor());
 
-                x0 = (bar.getX() - barWidth / 2);
-                x1 = (bar.getX() + barWidth / 2);
+                x0 = (barSet.getX(i) - barWidth / 2);
+                x1 = (barSet.getX(i) + barWidth / 2);
 
-                if (bar.getValue() > 0) {
+                if (barSet.getValue(i) > 0) {
 
                     y1 = zeroPosition - (barSize + verticalOffset);
 
-                    if (!bar.hasGradientColor()) mStyle.barPaint.setColor(bar.getColor());
-                    else mStyle.barPaint.setShader(new LinearGradient(x0, y1, x1, currBottomY,
-                            bar.getGradientColors(), bar.getGradientPositions(), Shader.TileMode.MIRROR));
+                    styleBar(bar, x0, y1, x1, currBottomY);
 
                     // Draw bar
                     if (j == bottomSetIndex) {//底部
@@ -109,16 +102,16 @@ public class BarChartViewStack extends BaseStackBarChartView {
                         if (bottomSetIndex != topSetIndex && mStyle.cornerRadius != 0) {
                             // Patch top corners of bar
                             cornersPatch = (currBottomY - y1) / 2;
-                            canvas.drawRect(new Rect((int) x0, (int) y1, (int) x1, (int) (y1 + cornersPatch)), mStyle.barPaint);
+                            drawBarPatch(canvas, (int) x0, (int) y1, (int) x1, (int) (y1 + cornersPatch));
                         }
                     } else if (j == topSetIndex) {//顶部
                         drawBar(canvas, (int) x0, (int) y1, (int) x1, (int) currBottomY);
                         // Patch bottom corners of bar
                         cornersPatch = (currBottomY - y1) / 2;
-                        canvas.drawRect(new Rect((int) x0, (int) (currBottomY - cornersPatch), (int) x1, (int) currBottomY), mStyle.barPaint);
+                        drawBarPatch(canvas, (int) x0, (int) (currBottomY - cornersPatch), (int) x1, (int) currBottomY);
 
                     } else { // if(j != bottomSetIndex && j != topSetIndex) { // Middle sets//中间
-                        canvas.drawRect(new Rect((int) x0, (int) y1, (int) x1, (int) currBottomY), mStyle.barPaint);
+                        drawBarPatch(canvas, (int) x0, (int) y1, (int) x1, (int) currBottomY);
                     }
 
                     currBottomY = y1;
@@ -130,29 +123,24 @@ public class BarChartViewStack extends BaseStackBarChartView {
 
                     y1 = zeroPosition + (barSize - negVerticalOffset);
 
-                    if (!bar.hasGradientColor()) mStyle.barPaint.setColor(bar.getColor());
-                    else mStyle.barPaint.setShader(new LinearGradient(x0, y1, x1, currBottomY,
-                            bar.getGradientColors(), bar.getGradientPositions(), Shader.TileMode.MIRROR));
+                    styleBar(bar, x0, y1, x1, currBottomY);
 
                     if (j == bottomSetIndex) {
                         drawBar(canvas, (int) x0, (int) negCurrBottomY, (int) x1, (int) y1);
                         if (bottomSetIndex != topSetIndex && mStyle.cornerRadius != 0) {
                             // Patch top corners of bar
                             cornersPatch = (y1 - negCurrBottomY) / 2;
-                            canvas.drawRect(new Rect((int) x0, (int) negCurrBottomY, (int) x1,
-                                    (int) (negCurrBottomY + cornersPatch)), mStyle.barPaint);
+                            drawBarPatch(canvas, (int) x0, (int) negCurrBottomY, (int) x1, (int) (negCurrBottomY + cornersPatch));
                         }
 
                     } else if (j == topSetIndex) {
                         drawBar(canvas, (int) x0, (int) negCurrBottomY, (int) x1, (int) y1);
                         // Patch bottom corners of bar
                         cornersPatch = (y1 - negCurrBottomY) / 2;
-                        canvas.drawRect(new Rect((int) x0, (int) (y1 - cornersPatch), (int) x1, (int) y1),
-                                mStyle.barPaint);
+                        drawBarPatch(canvas, (int) x0, (int) (y1 - cornersPatch), (int) x1, (int) y1);
 
                     } else { // if(j != bottomSetIndex && j != topSetIndex) { // Middle sets
-                        canvas.drawRect(new Rect((int) x0, (int) negCurrBottomY, (int) x1, (int) y1),
-                                mStyle.barPaint);
+                        drawBarPatch(canvas, (int) x0, (int) negCurrBottomY, (int) x1, (int) y1);
                     }
 
                     negCurrBottomY = y1;
@@ -169,13 +157,12 @@ public class BarChartViewStack extends BaseStackBarChartView {
         // 在这里进行计算，以避免在动画绘制时进行多次计算
         if (data.get(0).size() == 1)
             barWidth = (this.getInnerChartRight() - this.getInnerChartLeft() - this.getBorderSpacing() * 2);
-        else calculateBarsWidth(-1, data.get(0).getEntry(0).getX(), data.get(0).getEntry(1).getX());
+        else calculateBarsWidth(-1, data.get(0).getX(getFirstVisibleEntry()), data.get(0).getX(getFirstVisibleEntry() + 1));
     }
 
     @Override
-    void defineRegions(ArrayList<ArrayList<Region>> regions, ArrayList<ChartSet> data) {
+    void defineRegions(EntryRegions regions, ArrayList<ChartSet> data) {
         int dataSize = data.size();
-        int setSize = data.get(0).size();
 
         float verticalOffset;
         float currBottomY;
@@ -186,10 +173,9 @@ public class BarChartViewStack extends BaseStackBarChartView {
         float y1;
         float barSize;
         BarSet barSet;
-        Bar bar;
         float zeroPosition = this.getZeroPosition();
 
-        for (int i = 0; i < setSize; i++) {
+        for (int i = getFirstVisibleEntry(); i <= getLastVisibleEntry(); i++) {
 
             // Vertical offset to keep drawing bars on top of the others
             verticalOffset = 0;
@@ -201,8 +187,7 @@ public class BarChartViewStack extends BaseStackBarChartView {
             for (int j = 0; j < dataSize; j++) {
 
                 barSet = (BarSet) data.get(j);
-                bar = (Bar) barSet.getEntry(i);
-                barSize = Math.abs(zeroPosition - bar.getY());
+                barSize = Math.abs(zeroPosition - barSet.getY(i));
 
                 // If:
                 // Bar not visible OR
@@ -211,30 +196,24 @@ public class BarChartViewStack extends BaseStackBarChartView {
                 // Then no need to have region
                 if (!barSet.isVisible()) continue;
 
-                if (bar.getValue() > 0) {
+                if (barSet.getValue(i) > 0) {
                     y1 = zeroPosition - (barSize + verticalOffset);
-                    regions.get(j)
-                            .get(i)
-                            .set((int) (bar.getX() - barWidth / 2), (int) y1,
-                                    (int) (bar.getX() + barWidth / 2), (int) currBottomY);
+                    regions.set(j, i, (int) (barSet.getX(i) - barWidth / 2), (int) y1,
+                                    (int) (barSet.getX(i) + barWidth / 2), (int) currBottomY);
                     currBottomY = y1;
                     verticalOffset += barSize + 2;
 
-                } else if (bar.getValue() < 0) {
+                } else if (barSet.getValue(i) < 0) {
                     y1 = zeroPosition + (barSize - negVerticalOffset);
-                    regions.get(j)
-                            .get(i)
-                            .set((int) (bar.getX() - barWidth / 2), (int) negCurrBottomY,
-                                    (int) (bar.getX() + barWidth / 2), (int) y1);
+                    regions.set(j, i, (int) (barSet.getX(i) - barWidth / 2), (int) negCurrBottomY,
+                                    (int) (barSet.getX(i) + barWidth / 2), (int) y1);
                     negCurrBottomY = y1;
                     negVerticalOffset -= barSize;
 
                 } else {  // If bar.getValue() == 0, force region to 1 pixel
                     y1 = zeroPosition - (1 + verticalOffset);
-                    regions.get(j)
-                            .get(i)
-                            .set((int) (bar.getX() - barWidth / 2), (int) y1,
-                                    (int) (bar.getX() + barWidth / 2), (int) currBottomY);
+                    regions.set(j, i, (int) (barSet.getX(i) - barWidth / 2), (int) y1,
+                                    (int) (barSet.getX(i) + barWidth / 2), (int) currBottomY);
                 }
             }
         }
@@ -2,8 +2,6 @@ package com.pengl.williamchart.view;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.Rect;
-import android.graphics.Region;
 import android.util.AttributeSet;
 
 import com.pengl.williamchart.model.Bar;
@@ -47,16 +45,15 @@ public class BarChartViewStackHorizontal extends BaseStackBarChartView {
         BarSet barSet;
         Bar bar;
         int dataSize = data.size();
-        int setSize = data.get(0).size();
         float zeroPosition = this.getZeroPosition();
 
-        for (int i = 0; i < setSize; i++) {
+        for (int i = getFirstVisibleEntry(); i <= getLastVisibleEntry(); i++) {
 
             // If bar needs background
             if (mStyle.hasBarBackground) drawBarBackground(canvas, (int) this.getInnerChartLeft(),
-                    (int) (data.get(0).getEntry(i).getY() - barWidth / 2),
+                    (int) (data.get(0).getY(i) - barWidth / 2),
                     (int) this.getInnerChartRight(),
-                    (int) (data.get(0).getEntry(i).getY() + barWidth / 2));
+                    (int) (data.get(0).getY(i) + barWidth / 2));
 
             // Vertical offset to keep drawing bars on top of the others
             offset = 0;
@@ -74,26 +71,26 @@ public class BarChartViewStackHorizontal extends BaseStackBarChartView {
             for (int j = 0; j < dataSize; j++) {
 
                 barSet = (BarSet) data.get(j);
-                bar = (Bar) barSet.getEntry(i);
+                bar = (Bar) barSet.getEntryStyle(i);
 
-                barSize = Math.abs(zeroPosition - bar.getX());
+                barSize = Math.abs(zeroPosition - barSet.getX(i));
 
                 // If:
                 // Bar not visible OR
                 // Bar value equal to 0 OR
                 // Size of bar < 2 (Due to the loss of precision)
                 // Then no need to draw
-                if (!barSet.isVisible() || bar.getValue() == 0 || barSize < 2)
+                if (!barSet.isVisible() || barSet.getValue(i) == 0 || barSize < 2)
                     continue;
 
                 mStyle.barPaint.setColor(bar.getColor());
                 applyShadow(mStyle.barPaint, barSet.getAlpha(), bar.getShadowDx(), bar
                         .getShadowDy(), bar.getShadowRadius(), bar.getShadowColor());
 
-                y0 = (bar.getY() - barWidth / 2);
-                y1 = (bar.getY() + barWidth / 2);
+                y0 = (barSet.getY(i) - barWidth / 2);
+                y1 = (barSet.getY(i) + barWidth / 2);
 
-                if (bar.getValue() > 0) {
+                if (barSet.getValue(i) > 0) {
 
                     x1 = zeroPosition + (barSize - offset);
 
@@ -103,22 +100,17 @@ public class BarChartViewStackHorizontal extends BaseStackBarChartView {
                         if (bottomSetIndex != topSetIndex && mStyle.cornerRadius != 0) {
                             // Patch top corners of bar
                             cornersPatch = (x1 - currBottom) / 2;
-                            canvas.drawRect(
-                                    new Rect((int) (x1 - cornersPatch), (int) y0, (int) x1, (int) y1),
-                                    mStyle.barPaint);
+                            drawBarPatch(canvas, (int) (x1 - cornersPatch), (int) y0, (int) x1, (int) y1);
                         }
 
                     } else if (j == topSetIndex) {
                         drawBar(canvas, (int) currBottom, (int) y0, (int) x1, (int) y1);
                         // Patch bottom corners of bar
                         cornersPatch = (x1 - currBottom) / 2;
-                        canvas.drawRect(
-                                new Rect((int) currBottom, (int) y0, (int) (currBottom + cornersPatch),
-                                        (int) y1), mStyle.barPaint);
+                        drawBarPatch(canvas, (int) currBottom, (int) y0, (int) (currBottom + cornersPatch), (int) y1);
 
                     } else { // if(j != bottomSetIndex && j != topSetIndex) { // Middle sets
-                        canvas.drawRect(new Rect((int) currBottom, (int) y0, (int) x1, (int) y1),
-                                mStyle.barPaint);
+                        drawBarPatch(canvas, (int) currBottom, (int) y0, (int) x1, (int) y1);
                     }
 
                     currBottom = x1;
@@ -135,20 +127,17 @@ public class BarChartViewStackHorizontal extends BaseStackBarChartView {
                         if (bottomSetIndex != topSetIndex && mStyle.cornerRadius != 0) {
                             // Patch top corners of bar
                             cornersPatch = (negCurrBottom - x1) / 2;
-                            canvas.drawRect(new Rect((int) (negCurrBottom - cornersPatch), (int) y0,
-                                    (int) negCurrBottom, (int) y1), mStyle.barPaint);
+                            drawBarPatch(canvas, (int) (negCurrBottom - cornersPatch), (int) y0, (int) negCurrBottom, (int) y1);
                         }
 
                     } else if (j == topSetIndex) {
                         drawBar(canvas, (int) x1, (int) y0, (int) negCurrBottom, (int) y1);
                         // Patch bottom corners of bar
                         cornersPatch = (negCurrBottom - x1) / 2;
-                        canvas.drawRect(new Rect((int) x1, (int) y0, (int) (x1 + cornersPatch), (int) y1),
-                                mStyle.barPaint);
+                        drawBarPatch(canvas, (int) x1, (int) y0, (int) (x1 + cornersPatch), (int) y1);
 
                     } else { // if(j != bottomSetIndex && j != topSetIndex) { // Middle sets
-                        canvas.drawRect(new Rect((int) x1, (int) y0, (int) negCurrBottom, (int) y1),
-                                mStyle.barPaint);
+                        drawBarPatch(canvas, (int) x1, (int) y0, (int) negCurrBottom, (int) y1);
                     }
 
                     negCurrBottom = x1;
@@ -166,14 +155,13 @@ public class BarChartViewStackHorizontal extends BaseStackBarChartView {
         // in case of animation
         if (data.get(0).size() == 1)
             barWidth = (this.getInnerChartBottom() - this.getInnerChartTop() - this.getBorderSpacing() * 2);
-        else calculateBarsWidth(-1, data.get(0).getEntry(1).getY(), data.get(0).getEntry(0).getY());
+        else calculateBarsWidth(-1, data.get(0).getY(getFirstVisibleEntry() + 1), data.get(0).getY(getFirstVisibleEntry()));
     }
 
     @Override
-    void defineRegions(ArrayList<ArrayList<Region>> regions, ArrayList<ChartSet> data) {
+    void defineRegions(EntryRegions regions, ArrayList<ChartSet> data) {
 
         int dataSize = data.size();
-        int setSize = data.get(0).size();
 
         float offset;
         float currBottom;
@@ -184,10 +172,9 @@ public class BarChartViewStackHorizontal extends BaseStackBarChartView {
         float x1;
         float barSize;
         BarSet barSet;
-        Bar bar;
         float zeroPosition = this.getZeroPosition();
 
-        for (int i = 0; i < setSize; i++) {
+        for (int i = getFirstVisibleEntry(); i <= getLastVisibleEntry(); i++) {
 
             // Vertical offset to keep drawing bars on top of the others
             offset = 0;
@@ -199,33 +186,32 @@ public class BarChartViewStackHorizontal extends BaseStackBarChartView {
             for (int j = 0; j < dataSize; j++) {
 
                 barSet = (BarSet) data.get(j);
-                bar = (Bar) barSet.getEntry(i);
 
-                barSize = Math.abs(zeroPosition - bar.getX());
+                barSize = Math.abs(zeroPosition - barSet.getX(i));
 
                 // If:
                 // Bar not visible OR
                 // Then no need to have region
                 if (!barSet.isVisible()) continue;
 
-                if (bar.getValue() > 0) {
+                if (barSet.getValue(i) > 0) {
                     x1 = zeroPosition + (barSize - offset);
-                    regions.get(j).get(i).set((int) currBottom, (int) (bar.getY() - barWidth / 2),
-                            (int) x1, (int) (bar.getY() + barWidth / 2));
+                    regions.set(j, i, (int) currBottom, (int) (barSet.getY(i) - barWidth / 2),
+                            (int) x1, (int) (barSet.getY(i) + barWidth / 2));
                     currBottom = x1;
                     offset -= barSize - 2;
 
-                } else if (bar.getValue() < 0) {
+                } else if (barSet.getValue(i) < 0) {
                     x1 = zeroPosition - (barSize + negOffset);
-                    regions.get(j).get(i).set((int) x1, (int) (bar.getY() - barWidth / 2),
-                            (int) negCurrBottom, (int) (bar.getY() + barWidth / 2));
+                    regions.set(j, i, (int) x1, (int) (barSet.getY(i) - barWidth / 2),
+                            (int) negCurrBottom, (int) (barSet.getY(i) + barWidth / 2));
                     negCurrBottom = x1;
                     negOffset += barSize;
 
                 } else {  // If bar.getValue() == 0, force region to 1 pixel
                     x1 = zeroPosition + (1 - offset);
-                    regions.get(j).get(i).set((int) currBottom, (int) (bar.getY() - barWidth / 2),
-                            (int) x1, (int) (bar.getY() + barWidth / 2));
+                    regions.set(j, i, (int) currBottom, (int) (barSet.getY(i) - barWidth / 2),
+                            (int) x1, (int) (barSet.getY(i) + barWidth / 2));
                 }
             }
         }
@@ -3,8 +3,12 @@ package com.pengl.williamchart.view;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Matrix;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
+import android.graphics.Shader;
 import android.util.AttributeSet;
 
 import androidx.annotation.ColorInt;
@@ -17,6 +21,8 @@ import com.pengl.williamchart.model.Bar;
 import com.pengl.williamchart.model.BarSet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 
 /**
  * Implements a bar chart extending {@link ChartView}
@@ -44,6 +50,19 @@ public abstract class BaseBarChartView extends ChartView {
     boolean isDrawValue = false;
     private final int DEFAULT_VALUES_SIZE = 8;
 
+    /**
+     * Gradient of each bar styling, a unit gradient placed on each bar through its local matrix
+     */
+    private final IdentityHashMap<Bar, BarGradient> mGradients = new IdentityHashMap<>();
+    private final Matrix mGradientMatrix = new Matrix();
+    private final float[] mGradientValues = new float[9];
+
+    /**
+     * Bounds of the bar being drawn, and of the patch covering its rounded corners
+     */
+    private final RectF mBarRect = new RectF();
+    private final Rect mPatchRect = new Rect();
+
     public BaseBarChartView(Context context, AttributeSet attrs) {
         super(context, attrs);
         mStyle = new Style(context.getTheme().obtainStyledAttributes(attrs, R.styleable.BarChartAttrs, 0, 0));
@@ -63,7 +82,12 @@ public abstract class BaseBarChartView extends ChartView {
     @Override
     public void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        mStyle.clean();
+        mGradients.clear();
+    }
+
+    @Override
+    void onDataReplaced() {
+        mGradients.clear();
     }
 
     @Override
@@ -86,9 +110,60 @@ public abstract class BaseBarChartView extends ChartView {
      * @param bottom The Y coordinate of the bottom of the rectangle
      */
     void drawBar(Canvas canvas, float left, float top, float right, float bottom) {
-        canvas.drawRoundRect(
-                new RectF(Math.round(left), Math.round(top), Math.round(right), Math.round(bottom)),
-                mStyle.cornerRadius, mStyle.cornerRadius, mStyle.barPaint);
+        mBarRect.set(Math.round(left), Math.round(top), Math.round(right), Math.round(bottom));
+        canvas.drawRoundRect(mBarRect, mStyle.cornerRadius, mStyle.cornerRadius, mStyle.barPaint);
+    }
+
+    /**
+     * Draws the patch covering the rounded corners of a stacked bar.
+     *
+     * @param canvas {@link android.graphics.Canvas} used to draw the patch
+     * @param left   The X coordinate of the left side of the rectangle
+     * @param top    The Y coordinate of the top of the rectangle
+     * @param right  The X coordinate of the right side of the rectangle
+     * @param bottom The Y coordinate of the bottom of the rectangle
+     */
+    void drawBarPatch(Canvas canvas, int left, int top, int right, int bottom) {
+        mPatchRect.set(left, top, right, bottom);
+        canvas.drawRect(mPatchRect, mStyle.barPaint);
+    }
+
+    /**
+     * Style the bar paint with the color of a bar or, if it has one, with its gradient
+     * going from a point to another.
+     *
+     * @param bar {@link Bar} holding the styling
+     * @param x0  The X coordinate where gradient starts
+     * @param y0  The Y coordinate where gradient starts
+     * @param x1  The X coordinate where gradient ends
+     * @param y1  The Y coordinate where gradient ends
+     */
+    void styleBar(Bar bar, float x0, float y0, float x1, float y1) {
+        if (!bar.hasGradientColor()) {
+            mStyle.barPaint.setShader(null);
+            mStyle.barPaint.setColor(bar.getColor());
+            return;
+        }
+
+        BarGradient gradient = mGradients.get(bar);
+        if (gradient == null || !gradient.isOf(bar)) {
+            gradient = new BarGradient(bar);
+            mGradients.put(bar, gradient);
+        }
+
+        // Rotate and scale the unit gradient, from (0,0) to (1,0), onto the bar
+        final float dx = x1 - x0;
+        final float dy = y1 - y0;
+        mGradientValues[0] = dx;
+        mGradientValues[1] = -dy;
+        mGradientValues[2] = x0;
+        mGradientValues[3] = dy;
+        mGradientValues[4] = dx;
+        mGradientValues[5] = y0;
+        mGradientValues[8] = 1;
+        mGradientMatrix.setValues(mGradientValues);
+        gradient.shader.setLocalMatrix(mGradientMatrix);
+        mStyle.barPaint.setShader(gradient.shader);
     }
 
     /**
@@ -113,9 +188,8 @@ public abstract class BaseBarChartView extends ChartView {
      * @param bottom The Y coordinate of the bottom of the rectangle
      */
     void drawBarBackground(Canvas canvas, float left, float top, float right, float bottom) {
-        canvas.drawRoundRect(
-                new RectF(Math.round(left), Math.round(top), Math.round(right), Math.round(bottom)),
-                mStyle.cornerRadius, mStyle.cornerRadius, mStyle.barBackgroundPaint);
+        mBarRect.set(Math.round(left), Math.round(top), Math.round(right), Math.round(bottom));
+        canvas.drawRoundRect(mBarRect, mStyle.cornerRadius, mStyle.cornerRadius, mStyle.barBackgroundPaint);
     }
 
     /**
@@ -266,23 +340,42 @@ public abstract class BaseBarChartView extends ChartView {
         }
 
         private void init() {
-            barPaint = new Paint();
+            if (barPaint == null) barPaint = new Paint();
+            else barPaint.reset();
             barPaint.setStyle(Paint.Style.FILL);
 
-            barBackgroundPaint = new Paint();
+            if (barBackgroundPaint == null) barBackgroundPaint = new Paint();
+            else barBackgroundPaint.reset();
             barBackgroundPaint.setColor(mBarBackgroundColor);
             barBackgroundPaint.setStyle(Paint.Style.FILL);
 
-            valuePaint = new Paint();
+            if (valuePaint == null) valuePaint = new Paint();
+            else valuePaint.reset();
             valuePaint.setColor(mBarBackgroundColor);
             valuePaint.setTextSize(Tools.fromDpToPx(DEFAULT_VALUES_SIZE));
             valuePaint.setAntiAlias(true);
         }
+    }
+
+
+    /**
+     * Unit gradient of a bar styling, along with the colors and positions it was made of
+     */
+    private static final class BarGradient {
+
+        private final int[] colors;
+        private final float[] positions;
+        private final LinearGradient shader;
+
+        private BarGradient(Bar bar) {
+            colors = bar.getGradientColors().clone();
+            positions = (bar.getGradientPositions() != null) ? bar.getGradientPositions().clone() : null;
+            shader = new LinearGradient(0, 0, 1, 0, colors, positions, Shader.TileMode.MIRROR);
+        }
 
-        private void clean() {
-            barPaint = null;
-            barBackgroundPaint = null;
-            valuePaint = null;
+        private boolean isOf(Bar bar) {
+            return Arrays.equals(colors, bar.getGradientColors())
+                    && Arrays.equals(positions, bar.getGradientPositions());
         }
     }
 
@@ -3,9 +3,8 @@ package com.pengl.williamchart.view;
 import android.content.Context;
 import android.util.AttributeSet;
 
-import com.pengl.williamchart.model.Bar;
-import com.pengl.williamchart.model.BarSet;
 import com.pengl.williamchart.model.ChartSet;
+import com.pengl.williamchart.util.Stacks;
 
 import java.util.ArrayList;
 
@@ -19,6 +18,18 @@ public abstract class BaseStackBarChartView extends BaseBarChartView {
      */
     private boolean mCalcMaxValue;
 
+    /**
+     * Sum of positive, and of negative, values of every index across sets.
+     * Values each set contributed and its version at that time are kept, so only the
+     * indices whose values changed are summed again.
+     */
+    private float[] mPositiveSums;
+    private float[] mNegativeSums;
+    private float[][] mStackedValues;
+    private int[] mStackedVersions;
+    private ChartSet[] mStackedSets;
+    private boolean[] mChangedIndices;
+
     public BaseStackBarChartView(Context context, AttributeSet attrs) {
         super(context, attrs);
         mCalcMaxValue = true;
@@ -43,7 +54,7 @@ public abstract class BaseStackBarChartView extends BaseBarChartView {
 
         boolean hasNegativeValues = false;
         for (index = 0; index < dataSize; index++) {
-            if (data.get(index).getEntry(entryIndex).getValue() < 0) {
+            if (data.get(index).getValue(entryIndex) < 0) {
                 hasNegativeValues = true;
                 break;
             }
@@ -51,11 +62,11 @@ public abstract class BaseStackBarChartView extends BaseBarChartView {
 
         if (hasNegativeValues) { // Find last value < 0
             for (index = dataSize - 1; index >= 0; index--) {
-                if (data.get(index).getEntry(entryIndex).getValue() < 0) break;
+                if (data.get(index).getValue(entryIndex) < 0) break;
             }
         } else { // Find first non null value
             for (index = 0; index < dataSize; index++) {
-                if (data.get(index).getEntry(entryIndex).getValue() != 0) break;
+                if (data.get(index).getValue(entryIndex) != 0) break;
             }
         }
         return index;
@@ -75,7 +86,7 @@ public abstract class BaseStackBarChartView extends BaseBarChartView {
 
         boolean hasPositiveValues = false;
         for (index = 0; index < dataSize; index++) {
-            if (data.get(index).getEntry(entryIndex).getValue() > 0) {
+            if (data.get(index).getValue(entryIndex) > 0) {
                 hasPositiveValues = true;
                 break;
             }
@@ -83,10 +94,10 @@ public abstract class BaseStackBarChartView extends BaseBarChartView {
 
         if (hasPositiveValues) { // Find last value > 0
             for (index = dataSize - 1; index >= 0; index--)
-                if (data.get(index).getEntry(entryIndex).getValue() > 0) break;
+                if (data.get(index).getValue(entryIndex) > 0) break;
         } else { // Find first non null value
             for (index = 0; index < dataSize; index++) {
-                if (data.get(index).getEntry(entryIndex).getValue() != 0) break;
+                if (data.get(index).getValue(entryIndex) != 0) break;
             }
         }
         return index;
@@ -102,35 +113,49 @@ public abstract class BaseStackBarChartView extends BaseBarChartView {
      * aggregated, one on top of the other.
      */
     private void calculateMaxStackBarValue() {
-        float positiveStackValue;
-        float negativeStackValue;
-        BarSet barSet;
-        Bar bar;
-        int maxStackValue = 0;
-        int minStackValue = 0;
-
-        int dataSize = data.size();
-        int setSize = data.get(0).size();
+        updateStackSums();
+        final int[] extent = Stacks.extent(mPositiveSums, mNegativeSums, data.get(0).size());
 
-        for (int i = 0; i < setSize; i++) {
-            positiveStackValue = 0;
-            negativeStackValue = 0;
+        super.setAxisBorderValues(extent[0], extent[1], this.getStep());
+    }
 
-            for (int j = 0; j < dataSize; j++) {
-                barSet = (BarSet) data.get(j);
-                bar = (Bar) barSet.getEntry(i);
+    /**
+     * Bring stack sums up to date. Sets whose version didn't change since last time are
+     * skipped, and sums are only calculated again for indices whose values changed.
+     */
+    private void updateStackSums() {
+        final int dataSize = data.size();
+        final int setSize = data.get(0).size();
+
+        if (mPositiveSums == null || mPositiveSums.length != setSize || mStackedSets.length != dataSize) {
+            mPositiveSums = new float[setSize];
+            mNegativeSums = new float[setSize];
+            mStackedValues = new float[dataSize][setSize];
+            mStackedVersions = new int[dataSize];
+            mStackedSets = new ChartSet[dataSize];
+            mChangedIndices = new boolean[setSize];
+        }
 
-                if (bar.getValue() >= 0) positiveStackValue += bar.getValue();
-                else negativeStackValue += bar.getValue();
+        ChartSet set;
+        float value;
+        boolean changed = false;
+        for (int j = 0; j < dataSize; j++) {
+            set = data.get(j);
+            if (mStackedSets[j] == set && mStackedVersions[j] == set.getVersion()) continue;
+
+            for (int i = 0; i < setSize; i++) {
+                value = set.getValue(i);
+                if (value != mStackedValues[j][i]) {
+                    mStackedValues[j][i] = value;
+                    mChangedIndices[i] = true;
+                    changed = true;
+                }
             }
-
-            if (maxStackValue < (int) Math.ceil(positiveStackValue))
-                maxStackValue = (int) Math.ceil(positiveStackValue);
-            if (minStackValue > (int) Math.ceil(negativeStackValue * -1) * -1)
-                minStackValue = (int) Math.ceil(negativeStackValue * -1) * -1;
+            mStackedSets[j] = set;
+            mStackedVersions[j] = set.getVersion();
         }
-
-        super.setAxisBorderValues(minStackValue, maxStackValue, this.getStep());
+        if (changed)
+            Stacks.sum(mStackedValues, dataSize, mChangedIndices, setSize, mPositiveSums, mNegativeSums);
     }
 
     /*
@@ -145,6 +170,12 @@ public abstract class BaseStackBarChartView extends BaseBarChartView {
         super.show();
     }
 
+    @Override
+    void onDataReplaced() {
+        super.onDataReplaced();
+        if (mCalcMaxValue) calculateMaxStackBarValue();
+    }
+
     @Override
     public ChartView setAxisBorderValues(float minValue, float maxValue, float step) {
         mCalcMaxValue = false;
@@ -6,13 +6,19 @@ import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Picture;
 import android.graphics.Rect;
-import android.graphics.Region;
 import android.graphics.Typeface;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.view.ViewTreeObserver.OnPreDrawListener;
 import android.widget.RelativeLayout;
@@ -21,12 +27,15 @@ import androidx.annotation.ColorInt;
 import androidx.annotation.FloatRange;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.pengl.williamchart.animation.Animation;
 import com.pengl.williamchart.animation.ChartAnimationListener;
 import com.pengl.williamchart.listener.OnEntryClickListener;
+import com.pengl.williamchart.listener.OnRenderMetricsListener;
 import com.pengl.williamchart.model.ChartEntry;
 import com.pengl.williamchart.model.ChartSet;
+import com.pengl.williamchart.model.ScreenPoints;
 import com.pengl.williamchart.renderer.AxisRenderer;
 import com.pengl.williamchart.renderer.XRenderer;
 import com.pengl.williamchart.renderer.YRenderer;
@@ -36,6 +45,7 @@ import com.pengl.williamchart.R;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * 抽象类可以扩展来定义任何隐含轴的图表。
@@ -65,14 +75,54 @@ public abstract class ChartView extends RelativeLayout {
     private ArrayList<Integer> mThresholdEndLabels;     // 阈值区域标签
 
     /**
-     * Chart data to be displayed
+     * Clickable regions of chart entries
      */
-    private ArrayList<ArrayList<Region>> mRegions;
+    private EntryRegions mRegions;
+
+    /**
+     * Number of values appended to each set since the last time they were digested
+     */
+    private int[] mAppendedCounts;
 
     /**
      * Gestures detector to trigger listeners callback
      */
-    private final GestureDetector mGestureDetector;
+    private GestureDetector mGestureDetector;
+
+    /**
+     * Pinch detector to zoom the viewport
+     */
+    private ScaleGestureDetector mScaleGestureDetector;
+
+    /**
+     * Range of entries displayed, in entry index units, a negative end displays all entries
+     */
+    private float mViewportStart;
+    private float mViewportEnd;
+
+    /**
+     * Whether pinching zooms, and dragging pans, the viewport
+     */
+    private boolean mIsZoomEnabled;
+
+    /**
+     * Desired distance, in pixels, between labels of the values axis, 0 when not defined
+     */
+    private float mTickSpacing;
+
+    /**
+     * Grid and thresholds drawn below data, and axes drawn above it,
+     * recorded once and replayed every frame when enabled
+     */
+    private boolean mIsStaticLayerCached;
+    private Picture mBackgroundLayer;
+    private Picture mForegroundLayer;
+    private boolean mIsStaticLayerValid;
+
+    /**
+     * How the chart is rasterized
+     */
+    private RenderingMode mRenderingMode = RenderingMode.AUTO;
 
     /**
      * Listener callback on entry click
@@ -99,6 +149,25 @@ public abstract class ChartView extends RelativeLayout {
      */
     private Animation mAnim;
 
+    /**
+     * Executor where the chart is prepared, null to prepare it on the main thread
+     */
+    private Executor mPreparationExecutor;
+
+    /**
+     * Incremented every time a preparation starts or is abandoned, allowing
+     * results of outdated preparations to be discarded
+     */
+    private volatile int mPreparation;
+    private boolean mIsPreparing;
+
+    /**
+     * Held while preparing, and by the main thread while touching anything a preparation uses.
+     * Preparations never run concurrently, an abandoned one may still be running when the next
+     * starts, which then waits for it, as does the main thread if it needs to reset the chart.
+     */
+    private final Object mPreparationLock = new Object();
+
     /**
      * Executed only before the chart is drawn for the first time.
      * . borders are defined
@@ -113,82 +182,80 @@ public abstract class ChartView extends RelativeLayout {
 
             ChartView.this.getViewTreeObserver().removeOnPreDrawListener(this);
 
-            // Generate Paint object with mStyle attributes
-            style.init();
-
-            // Initiate axis labels with data and mStyle
-            yRndr.init(data, style);
-            xRndr.init(data, style);
-
-            // Set the positioning of the whole chart's frame
-            mChartLeft = getPaddingLeft();
-            mChartTop = getPaddingTop() + style.fontMaxHeight;// 避免最高点的文字显示不全，加上文字的高度
-            mChartRight = getMeasuredWidth() - getPaddingRight();
-            mChartBottom = getMeasuredHeight() - getPaddingBottom();
-
-            // Measure space and set the positioning of the inner border.
-            // Inner borders will be chart's frame excluding the space needed by axis.
-            // They define the actual area where chart's content will be drawn.
-            yRndr.measure(mChartLeft, mChartTop, mChartRight, mChartBottom);
-            xRndr.measure(mChartLeft, mChartTop, mChartRight, mChartBottom);
-
-            // Negotiate chart inner boundaries.
-            // Both renderers may require different space to draw axis stuff.
-            final float[] bounds = negotiateInnerChartBounds(yRndr.getInnerChartBounds(), xRndr.getInnerChartBounds());
-            yRndr.setInnerChartBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
-            xRndr.setInnerChartBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
-
-            // Dispose the various axis elements in their positions
-            yRndr.dispose();
-            xRndr.dispose();
-
-            // Parse threshold screen coordinates
-            if (!mThresholdStartValues.isEmpty()) {
-                for (int i = 0; i < mThresholdStartValues.size(); i++) {
-                    mThresholdStartValues.set(i, yRndr.parsePos(0, mThresholdStartValues.get(i)));
-                    mThresholdEndValues.set(i, yRndr.parsePos(0, mThresholdEndValues.get(i)));
-                }
+            // Sparklines are projected while drawn, there's nothing to prepare
+            if (isSparkline()) {
+                mPreparation++;
+                mIsPreparing = false;
+                mReadyToDraw = true;
+                return true;
             }
 
-            // Process data to define screen coordinates
-            digestData();
-
-            // In case Views extending ChartView need to pre process data before the onDraw
-            onPreDrawChart(data);
-
-            // Define entries regions
-            if (mRegions.isEmpty()) {
-                int dataSize = data.size();
-                int setSize;
-                mRegions = new ArrayList<>(dataSize);
-                ArrayList<Region> regionSet;
-                for (int i = 0; i < dataSize; i++) {
-                    setSize = data.get(0).size();
-                    regionSet = new ArrayList<>(setSize);
-                    for (int j = 0; j < setSize; j++)
-                        regionSet.add(new Region());
-                    mRegions.add(regionSet);
-                }
+            // Generate Paint object with mStyle attributes
+            synchronized (mPreparationLock) {
+                style.init();
             }
-            defineRegions(mRegions, data);
 
-            // Prepare the animation retrieving the first dump of coordinates to be used
-            if (mAnim != null)
-                data = mAnim.prepareEnterAnimation(ChartView.this);
+            if (mPreparationExecutor != null) {
+                prepareAsync();
+                return true;
+            }
 
-            ChartView.this.setLayerType(LAYER_TYPE_SOFTWARE, null);
-            return mReadyToDraw = true;
+            mPreparation++;
+            mIsPreparing = true;
+            final Rect frame = measureFrame();
+            synchronized (mPreparationLock) {
+                prepare(data, frame);
+            }
+            onPrepared();
+            return true;
         }
     };
 
+    /**
+     * Values posted from any thread, taken by the sets at the start of the next frame
+     */
+    private final ValuesBuffer mValuesBuffer = new ValuesBuffer();
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final Choreographer.FrameCallback mValuesFrameCallback = frameTimeNanos -> takePostedValues();
+
+    private final Runnable mScheduleValues = () -> Choreographer.getInstance().postFrameCallback(mValuesFrameCallback);
+
+    /**
+     * Whether data updates are merged and processed once per frame
+     */
+    private boolean mIsUpdateBatched;
+    private boolean mIsUpdateScheduled;
+    private final Choreographer.FrameCallback mUpdateFrameCallback = frameTimeNanos -> updateData();
+
+    /**
+     * Coordinates displayed when an update is processed, reused between updates
+     */
+    private ScreenPoints[] mUpdateStart;
+
+    /**
+     * Whether an exit animation has been requested
+     */
+    private boolean mIsDismissing;
+
     private ChartAnimationListener mAnimListener;
 
+    /**
+     * Listener of the time spent in each phase of the rendering pipeline
+     */
+    private volatile OnRenderMetricsListener mMetricsListener;
+
+    /**
+     * Time the previous frame of the playing animation was drawn, 0 if none
+     */
+    private long mLastAnimationFrame;
+
     private Tooltip mTooltip;
 
     public ChartView(Context context, AttributeSet attrs) {
         super(context, attrs);
         init();
-        mGestureDetector = new GestureDetector(context, new GestureListener());
         xRndr = new XRenderer();
         yRndr = new YRenderer();
         style = new Style(context, attrs);
@@ -197,7 +264,6 @@ public abstract class ChartView extends RelativeLayout {
     public ChartView(Context context) {
         super(context);
         init();
-        mGestureDetector = new GestureDetector(context, new GestureListener());
         xRndr = new XRenderer();
         yRndr = new YRenderer();
         style = new Style(context);
@@ -205,13 +271,18 @@ public abstract class ChartView extends RelativeLayout {
 
     private void init() {
         mReadyToDraw = false;
+        mIsPreparing = false;
+        mPreparation++;
         mThresholdStartValues = new ArrayList<>();
         mThresholdEndValues = new ArrayList<>();
         mThresholdStartLabels = new ArrayList<>();
         mThresholdEndLabels = new ArrayList<>();
         mIsDrawing = false;
+        mViewportStart = 0;
+        mViewportEnd = -1;
+        mTickSpacing = 0;
         data = new ArrayList<>();
-        mRegions = new ArrayList<>();
+        mRegions = new EntryRegions(hasRegionsSortedByX());
         mAnimListener = data -> {
             if (!mIsDrawing) {
                 addData(data);
@@ -226,13 +297,17 @@ public abstract class ChartView extends RelativeLayout {
     public void onAttachedToWindow() {
         super.onAttachedToWindow();
         this.setWillNotDraw(false);
-        style.init();
+        synchronized (mPreparationLock) {
+            style.init();
+        }
+        // Start over any preparation abandoned while detached
+        if (mIsPreparing) display();
     }
 
     @Override
     public void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        style.clean();
+        if (mIsPreparing) mPreparation++;
     }
 
     @Override
@@ -259,9 +334,17 @@ public abstract class ChartView extends RelativeLayout {
     @Override
     public boolean onTouchEvent(@NonNull MotionEvent event) {
         super.onTouchEvent(event);
-        return !(mAnim != null && mAnim.isPlaying()
-                || mEntryListener == null && mChartListener == null && mTooltip == null)
-                && mGestureDetector.onTouchEvent(event);
+        if (mAnim != null && mAnim.isPlaying() || !mReadyToDraw || isSparkline()) return false;
+        if (!mIsZoomEnabled && mEntryListener == null && mChartListener == null && mTooltip == null)
+            return false;
+
+        // Detectors are only created once there's something to detect
+        if (mGestureDetector == null) {
+            mGestureDetector = new GestureDetector(getContext(), new GestureListener());
+            mScaleGestureDetector = new ScaleGestureDetector(getContext(), new ScaleListener());
+        }
+        if (mIsZoomEnabled) mScaleGestureDetector.onTouchEvent(event);
+        return mGestureDetector.onTouchEvent(event);
     }
 
     @Override
@@ -269,53 +352,332 @@ public abstract class ChartView extends RelativeLayout {
         mIsDrawing = true;
         super.onDraw(canvas);
 
-        if (mReadyToDraw) {
-            // long time = System.currentTimeMillis();
+        if (mReadyToDraw && isSparkline()) {
+            if (!data.isEmpty()) {
+                final long start = beginPhase(RenderPhase.DRAW_DATA);
+                onDrawChart(canvas, data);
+                endPhase(RenderPhase.DRAW_DATA, start, countEntries(data));
+            }
+        } else if (mReadyToDraw) {
+            reportAnimationFrame();
+
+            // Draw grid and thresholds
+            long start = beginPhase(RenderPhase.DRAW_GRID);
+            if (useStaticLayer(canvas)) canvas.drawPicture(mBackgroundLayer);
+            else drawBackground(canvas);
+            endPhase(RenderPhase.DRAW_GRID, start, 0);
+
+            // Draw data, clipped along the labels axis when only part of it is displayed
+            if (!data.isEmpty()) {
+                start = beginPhase(RenderPhase.DRAW_DATA);
+                if (mViewportEnd >= 0) {
+                    canvas.save();
+                    if (mOrientation == Orientation.VERTICAL)
+                        canvas.clipRect(getInnerChartLeft(), 0, getInnerChartRight(), getHeight());
+                    else
+                        canvas.clipRect(0, getInnerChartTop(), getWidth(), getInnerChartBottom());
+                    onDrawChart(canvas, data);
+                    canvas.restore();
+                } else onDrawChart(canvas, data);
+                endPhase(RenderPhase.DRAW_DATA, start, countVisibleEntries(data));
+            }
 
-            // Draw grid
-            if (style.hasVerticalGrid()) drawVerticalGrid(canvas);
-            if (style.hasHorizontalGrid()) drawHorizontalGrid(canvas);
+            // Draw axes
+            start = beginPhase(RenderPhase.DRAW_AXES);
+            if (useStaticLayer(canvas)) canvas.drawPicture(mForegroundLayer);
+            else drawForeground(canvas);
+            endPhase(RenderPhase.DRAW_AXES, start, 0);
+        }
 
-            // Draw threshold
-            if (!mThresholdStartValues.isEmpty())
-                for (int i = 0; i < mThresholdStartValues.size(); i++)
-                    drawThreshold(canvas, getInnerChartLeft(), mThresholdStartValues.get(i),
-                            getInnerChartRight(), mThresholdEndValues.get(i), style.valueThresPaint);
-            if (!mThresholdStartLabels.isEmpty())
-                for (int i = 0; i < mThresholdStartLabels.size(); i++)
-                    drawThreshold(canvas, data.get(0).getEntry(mThresholdStartLabels.get(i)).getX(),
-                            getInnerChartTop(), data.get(0).getEntry(mThresholdEndLabels.get(i)).getX(),
-                            getInnerChartBottom(), style.labelThresPaint);
+        mIsDrawing = false;
+    }
 
-            // Draw data
-            if (!data.isEmpty()) onDrawChart(canvas, data);
+    /**
+     * Draw the elements below data, grid and thresholds.
+     */
+    private void drawBackground(Canvas canvas) {
+        // Draw grid
+        if (style.hasVerticalGrid()) drawVerticalGrid(canvas);
+        if (style.hasHorizontalGrid()) drawHorizontalGrid(canvas);
 
-            // Draw Axis Y
-            yRndr.draw(canvas);
+        // Draw threshold
+        if (!mThresholdStartValues.isEmpty())
+            for (int i = 0; i < mThresholdStartValues.size(); i++)
+                drawThreshold(canvas, getInnerChartLeft(), yRndr.parsePos(0, mThresholdStartValues.get(i)),
+                        getInnerChartRight(), yRndr.parsePos(0, mThresholdEndValues.get(i)), style.valueThresPaint);
+        if (!mThresholdStartLabels.isEmpty())
+            for (int i = 0; i < mThresholdStartLabels.size(); i++)
+                drawThreshold(canvas, xRndr.parsePos(mThresholdStartLabels.get(i), 0),
+                        getInnerChartTop(), xRndr.parsePos(mThresholdEndLabels.get(i), 0),
+                        getInnerChartBottom(), style.labelThresPaint);
+    }
+
+    /**
+     * Draw the elements above data, axes and their labels.
+     */
+    private void drawForeground(Canvas canvas) {
+        // Draw Axis Y
+        yRndr.draw(canvas);
 
-            // Draw axis X
-            xRndr.draw(canvas);
+        // Draw axis X
+        xRndr.draw(canvas);
+    }
+
+    /**
+     * Check whether static elements are to be replayed from their recording, recording
+     * them first if they changed. Pictures are only drawn by hardware accelerated
+     * canvases from API 23.
+     *
+     * @param canvas Canvas being drawn
+     * @return True if recordings are up to date and can be drawn.
+     */
+    private boolean useStaticLayer(Canvas canvas) {
+        if (!mIsStaticLayerCached
+                || canvas.isHardwareAccelerated() && Build.VERSION.SDK_INT < Build.VERSION_CODES.M)
+            return false;
 
-            //System.out.println("Time drawing "+(System.currentTimeMillis() - time));
+        if (!mIsStaticLayerValid) {
+            if (mBackgroundLayer == null) {
+                mBackgroundLayer = new Picture();
+                mForegroundLayer = new Picture();
+            }
+            drawBackground(mBackgroundLayer.beginRecording(getWidth(), getHeight()));
+            mBackgroundLayer.endRecording();
+            drawForeground(mForegroundLayer.beginRecording(getWidth(), getHeight()));
+            mForegroundLayer.endRecording();
+            mIsStaticLayerValid = true;
         }
+        return true;
+    }
 
-        mIsDrawing = false;
+    /**
+     * Record grid, thresholds and axes again next time they are drawn.
+     */
+    private void invalidateStaticLayer() {
+        mIsStaticLayerValid = false;
     }
 
     /**
-     * Convert {@link ChartEntry} values into screen points.
+     * Frame the chart is prepared within, the measured size of the view minus its padding.
+     * Taken on the main thread as preparation may run on any other.
+     *
+     * @return Chart's frame.
+     */
+    private Rect measureFrame() {
+        return new Rect(getPaddingLeft(), getPaddingTop(),
+                getMeasuredWidth() - getPaddingRight(), getMeasuredHeight() - getPaddingBottom());
+    }
+
+    /**
+     * Define borders, digest data and define regions of a list of sets.
+     * Doesn't touch anything being drawn, so it may run on any thread while the chart
+     * isn't ready to draw, holding the preparation lock.
+     *
+     * @param sets  Sets to be prepared
+     * @param frame Chart's frame, as measured by {@link #measureFrame()}
      */
-    private void digestData() {
-        int nEntries = data.get(0).size();
-        for (ChartSet set : data) {
-            for (int i = 0; i < nEntries; i++) {
-                set.getEntry(i).setCoordinates(
-                        xRndr.parsePos(i, set.getValue(i)),
-                        yRndr.parsePos(i, set.getValue(i)));
+    private void prepare(ArrayList<ChartSet> sets, Rect frame) {
+
+        // Turn the desired labels distance into a number of steps along the values axis
+        if (mTickSpacing > 0) {
+            final float length = (mOrientation == Orientation.VERTICAL) ? frame.height() : frame.width();
+            getValuesRenderer().setTickCount(Math.max(1, Math.round(length / mTickSpacing)));
+        }
+
+        // Initiate axis labels with data and mStyle
+        long start = beginPhase(RenderPhase.INIT);
+        yRndr.init(sets, style);
+        xRndr.init(sets, style);
+        endPhase(RenderPhase.INIT, start, countEntries(sets));
+
+        // Set the positioning of the whole chart's frame
+        start = beginPhase(RenderPhase.MEASURE);
+        mChartLeft = frame.left;
+        mChartTop = frame.top + style.fontMaxHeight;// 避免最高点的文字显示不全，加上文字的高度
+        mChartRight = frame.right;
+        mChartBottom = frame.bottom;
+
+        // Measure space and set the positioning of the inner border.
+        // Inner borders will be chart's frame excluding the space needed by axis.
+        // They define the actual area where chart's content will be drawn.
+        yRndr.measure(mChartLeft, mChartTop, mChartRight, mChartBottom);
+        xRndr.measure(mChartLeft, mChartTop, mChartRight, mChartBottom);
+
+        // Negotiate chart inner boundaries.
+        // Both renderers may require different space to draw axis stuff.
+        final float[] bounds = negotiateInnerChartBounds(yRndr.getInnerChartBounds(), xRndr.getInnerChartBounds());
+        yRndr.setInnerChartBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
+        xRndr.setInnerChartBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
+        endPhase(RenderPhase.MEASURE, start, 0);
+
+        // Restrict the labels axis to the viewport, if any
+        start = beginPhase(RenderPhase.DISPOSE);
+        clampViewport(sets);
+        getLabelsRenderer().setViewport(mViewportStart, mViewportEnd);
+
+        // Dispose the various axis elements in their positions
+        yRndr.dispose();
+        xRndr.dispose();
+        endPhase(RenderPhase.DISPOSE, start, 0);
+
+        // Process data to define screen coordinates
+        digestData(sets);
+
+        // In case Views extending ChartView need to pre process data before the onDraw
+        onPreDrawChart(sets);
+
+        // Define entries regions
+        defineRegions(sets);
+    }
+
+    /**
+     * Make the chart ready to draw once prepared, on the main thread.
+     */
+    private void onPrepared() {
+        // Prepare the animation retrieving the first dump of coordinates to be used
+        if (mAnim != null)
+            data = mAnim.prepareEnterAnimation(this);
+
+        applyRenderingMode();
+        invalidateStaticLayer();
+        mIsPreparing = false;
+        mReadyToDraw = true;
+    }
+
+    /**
+     * Prepare a snapshot of the sets on the preparation executor. Once prepared,
+     * its coordinates are taken by the sets on the main thread and the chart is drawn.
+     * If any set changed in the meantime the preparation starts over.
+     */
+    private void prepareAsync() {
+        mReadyToDraw = false;
+        mIsPreparing = true;
+        final int preparation = ++mPreparation;
+        final ArrayList<ChartSet> snapshot = new ArrayList<>(data.size());
+        for (ChartSet set : data)
+            snapshot.add(set.snapshot());
+        final Rect frame = measureFrame();
+
+        mPreparationExecutor.execute(() -> {
+            try {
+                synchronized (mPreparationLock) {
+                    // Abandoned while waiting for a previous preparation
+                    if (preparation != mPreparation) return;
+                    prepare(snapshot, frame);
+                }
+            } catch (final RuntimeException e) {
+                // Rethrow on the main thread, unless the preparation was meanwhile abandoned
+                post(() -> {
+                    if (preparation == mPreparation) throw e;
+                });
+                return;
             }
+            post(() -> {
+                if (preparation != mPreparation) return;
+                boolean adopted = snapshot.size() == data.size();
+                for (int i = 0; adopted && i < data.size(); i++)
+                    adopted = data.get(i).adoptCoordinates(snapshot.get(i));
+                if (!adopted) {
+                    prepareAsync();
+                    return;
+                }
+                onPrepared();
+                invalidate();
+            });
+        });
+    }
+
+    /**
+     * Convert {@link ChartEntry} values into screen points.
+     *
+     * @param sets Sets to be digested
+     */
+    private void digestData(ArrayList<ChartSet> sets) {
+        final long start = beginPhase(RenderPhase.DIGEST);
+        onDigestData(sets);
+        final int begin = getFirstVisibleEntry();
+        final int end = getLastVisibleEntry() + 1;
+        for (int s = 0; s < sets.size(); s++) {
+            sets.get(s).consumeAppended();
+            digestEntries(s, sets.get(s), begin, end);
+        }
+        onDataDigested(sets);
+        endPhase(RenderPhase.DIGEST, start, countVisibleEntries(sets));
+    }
+
+    /**
+     * (Optional) To be overridden in case the view needs to get ready before
+     * screen points are parsed from {@link ChartEntry} values.
+     *
+     * @param data Array of {@link ChartSet} about to be digested
+     */
+    void onDigestData(ArrayList<ChartSet> data) {
+    }
+
+    /**
+     * Convert a range of {@link ChartEntry} values of a set into screen points.
+     * Entries out of the viewport are not digested.
+     * (Optional) To be overridden in case the view digests only part of the range.
+     *
+     * @param setIndex Index of set
+     * @param set      {@link ChartSet} to be digested
+     * @param begin    First entry to digest, inclusive
+     * @param end      Last entry to digest, exclusive
+     */
+    void digestEntries(int setIndex, ChartSet set, int begin, int end) {
+        for (int i = begin; i < end; i++)
+            digestEntry(set, i);
+    }
+
+    /**
+     * Convert a {@link ChartEntry} value into a screen point.
+     *
+     * @param set   {@link ChartSet} holding the entry
+     * @param index Index of entry
+     */
+    final void digestEntry(ChartSet set, int index) {
+        final float value = set.getValue(index);
+        set.setCoordinates(index, xRndr.parsePos(index, value), yRndr.parsePos(index, value));
+    }
+
+    /**
+     * Convert only the last {@link ChartEntry} values of a set into screen points.
+     * The remaining entries were shifted towards the start so their screen points
+     * are translated along the labels axis instead of parsed again.
+     *
+     * @param set       {@link ChartSet} to be digested
+     * @param nAppended Number of entries appended at the end of the set
+     */
+    private void digestTail(ChartSet set, int nAppended) {
+        final int nEntries = set.size();
+        final int start = nEntries - nAppended;
+
+        if (nAppended > 0 && start > 0) {
+            final float dx = (mOrientation == Orientation.VERTICAL) ? labelsShift(nAppended) : 0;
+            final float dy = (mOrientation == Orientation.VERTICAL) ? 0 : labelsShift(nAppended);
+            for (int i = 0; i < start; i++)
+                set.setCoordinates(i, set.getX(i) + dx, set.getY(i) + dy);
+        }
+
+        float value;
+        for (int i = start; i < nEntries; i++) {
+            value = set.getValue(i);
+            set.setCoordinates(i, xRndr.parsePos(i, value), yRndr.parsePos(i, value));
         }
     }
 
+    /**
+     * Translation, along the labels axis, of entries shifted towards the start of their set.
+     *
+     * @param nShifted Number of positions entries are shifted
+     * @return Translation of the entries' screen points.
+     */
+    private float labelsShift(int nShifted) {
+        if (mOrientation == Orientation.VERTICAL)
+            return xRndr.parsePos(0, 0) - xRndr.parsePos(nShifted, 0);
+        return yRndr.parsePos(0, 0) - yRndr.parsePos(nShifted, 0);
+    }
+
     /**
      * (Optional) To be overridden in case the view needs to execute some code before
      * starting the drawing.
@@ -325,6 +687,114 @@ public abstract class ChartView extends RelativeLayout {
     void onPreDrawChart(ArrayList<ChartSet> data) {
     }
 
+    /**
+     * (Optional) To be overridden in case the view needs to post process screen points
+     * every time they are parsed from {@link ChartEntry} values, before they get drawn.
+     *
+     * @param data Array of {@link ChartSet} whose screen points have just been defined
+     */
+    void onDataDigested(ArrayList<ChartSet> data) {
+    }
+
+    /**
+     * Define the clickable regions of every entry and index them.
+     *
+     * @param sets Sets whose regions are defined
+     */
+    private void defineRegions(ArrayList<ChartSet> sets) {
+        final long start = beginPhase(RenderPhase.REGIONS);
+        mRegions.reset(sets.size(), sets.get(0).size());
+        defineRegions(mRegions, sets);
+        mRegions.build();
+        endPhase(RenderPhase.REGIONS, start, countEntries(sets));
+    }
+
+    /**
+     * Define the clickable regions of the entries appended to every set, shifting the
+     * regions of the remaining entries along. Every region is defined again if the
+     * chart can't define only those.
+     *
+     * @param sets Sets whose regions are defined
+     */
+    private void defineAppendedRegions(ArrayList<ChartSet> sets) {
+        if (mRegions.getSetsCount() != sets.size() || mRegions.getEntriesCount() != sets.get(0).size()) {
+            defineRegions(sets);
+            return;
+        }
+
+        final long start = beginPhase(RenderPhase.REGIONS);
+        boolean defined = true;
+        int nAppended = 0;
+        float shift;
+        for (int s = 0; defined && s < sets.size(); s++) {
+            shift = labelsShift(mAppendedCounts[s]);
+            defined = (mOrientation == Orientation.VERTICAL)
+                    ? defineAppendedRegions(mRegions, sets.get(s), s, mAppendedCounts[s], shift, 0)
+                    : defineAppendedRegions(mRegions, sets.get(s), s, mAppendedCounts[s], 0, shift);
+            nAppended += mAppendedCounts[s];
+        }
+        endPhase(RenderPhase.REGIONS, start, nAppended);
+
+        if (!defined) defineRegions(sets);
+    }
+
+    /**
+     * Start a phase of the rendering pipeline, opening its trace section.
+     *
+     * @param phase Phase starting
+     * @return Time phase started, 0 if not measured.
+     */
+    private long beginPhase(RenderPhase phase) {
+        Trace.beginSection(phase.mSectionName);
+        return (mMetricsListener != null) ? System.nanoTime() : 0;
+    }
+
+    /**
+     * End a phase of the rendering pipeline, closing its trace section and reporting its duration.
+     *
+     * @param phase    Phase ending
+     * @param start    Time phase started, as returned by {@link #beginPhase(RenderPhase)}
+     * @param nEntries Number of entries handled by the phase
+     */
+    private void endPhase(RenderPhase phase, long start, int nEntries) {
+        Trace.endSection();
+        final OnRenderMetricsListener listener = mMetricsListener;
+        if (listener != null && start != 0)
+            listener.onPhaseCompleted(phase, System.nanoTime() - start, nEntries);
+    }
+
+    /**
+     * Report the time since the previous frame drawn while animating.
+     */
+    private void reportAnimationFrame() {
+        if (mMetricsListener == null || mAnim == null || !mAnim.isPlaying()) {
+            mLastAnimationFrame = 0;
+            return;
+        }
+        final long now = System.nanoTime();
+        if (mLastAnimationFrame != 0) mMetricsListener.onAnimationFrame(now - mLastAnimationFrame);
+        mLastAnimationFrame = now;
+    }
+
+    private static int countEntries(ArrayList<ChartSet> sets) {
+        return sets.isEmpty() ? 0 : sets.size() * sets.get(0).size();
+    }
+
+    private int countVisibleEntries(ArrayList<ChartSet> sets) {
+        return sets.size() * Math.max(0, getLastVisibleEntry() - getFirstVisibleEntry() + 1);
+    }
+
+    /**
+     * (Optional) To be overridden in case the clickable regions of each set are placed
+     * in ascending order of their left side, allowing them to be binary searched.
+     * Otherwise they are indexed in a uniform grid.
+     *
+     * @return True if regions of each set are sorted by x, False otherwise.
+     */
+    boolean hasRegionsSortedByX() {
+        return false;
+    }
+
     /**
      * (Optional) To be overridden in order for each chart to define its own clickable regions.
      * This way, classes extending ChartView will only define their clickable regions.
@@ -332,11 +802,29 @@ public abstract class ChartView extends RelativeLayout {
      * Important: the returned vector must match the order of the data passed
      * by the user. This ensures that onTouchEvent will return the correct index.
      *
-     * @param regions Empty list of regions where result of this method must be assigned
+     * @param regions Empty regions where result of this method must be assigned
      * @param data    {@link java.util.ArrayList} of {@link ChartSet}
      *                to use while defining each region of a {@link ChartView}
      */
-    void defineRegions(ArrayList<ArrayList<Region>> regions, ArrayList<ChartSet> data) {
+    void defineRegions(EntryRegions regions, ArrayList<ChartSet> data) {
+    }
+
+    /**
+     * (Optional) To be overridden in order for a chart to define only the clickable regions
+     * of entries appended to a set. The remaining entries were shifted towards the start of
+     * the set, and so were their regions, translated along with their screen points.
+     *
+     * @param regions   Indexed regions of chart, about to be shifted
+     * @param set       {@link ChartSet} values were appended to
+     * @param setIndex  Index of set
+     * @param nAppended Number of entries appended at the end of the set
+     * @param dx        Horizontal translation of shifted entries
+     * @param dy        Vertical translation of shifted entries
+     * @return True if regions were defined, False to have every region of chart defined again.
+     */
+    boolean defineAppendedRegions(EntryRegions regions, ChartSet set, int setIndex,
+                                  int nAppended, float dx, float dy) {
+        return false;
     }
 
     /**
@@ -375,6 +863,7 @@ public abstract class ChartView extends RelativeLayout {
      * Base method when a show chart occurs
      */
     private void display() {
+        mIsDismissing = false;
         this.getViewTreeObserver().addOnPreDrawListener(drawListener);
         postInvalidate();
     }
@@ -432,10 +921,21 @@ public abstract class ChartView extends RelativeLayout {
      * @param anim Animation used to exit
      */
     public void dismiss(@NonNull Animation anim) {
-        mAnim = Preconditions.checkNotNull(anim);
+        Preconditions.checkNotNull(anim);
+
+        // Sparklines aren't animated
+        if (isSparkline()) {
+            data.clear();
+            invalidate();
+            if (anim.getEndAction() != null) anim.getEndAction().run();
+            return;
+        }
+
+        mAnim = anim;
         mAnim.setAnimationListener(mAnimListener);
 
         final Runnable endAction = mAnim.getEndAction();
+        mIsDismissing = true;
         mAnim.withEndAction(() -> {
             if (endAction != null) endAction.run();
             data.clear();
@@ -454,16 +954,94 @@ public abstract class ChartView extends RelativeLayout {
         if (mAnim != null && mAnim.isPlaying())
             mAnim.cancel();
 
-        init();
-        xRndr.reset();
-        yRndr.reset();
-        setOrientation(mOrientation);
+        synchronized (mPreparationLock) {
+            init();
+            xRndr.reset();
+            yRndr.reset();
+            setOrientation(mOrientation);
+        }
 
         style.labelThresPaint = null;
         style.valueThresPaint = null;
         style.gridPaint = null;
     }
 
+    /**
+     * Replace the data of the chart keeping everything else, such as when binding a recycled
+     * chart of a list. Unlike {@link #reset()} the chart's configuration, paints, regions, label
+     * metrics and path buffers are kept, buffers being reallocated only when the number of sets
+     * or of entries grows. A chart already displayed is prepared again right away, without
+     * waiting for a pre draw pass, and drawn without animation. Otherwise, or if it is prepared
+     * asynchronously, the new data is displayed as with {@link #show()}. Axis borders and step
+     * found out from data are found out again, those defined are kept, and the viewport is reset.
+     *
+     * @param sets Sets replacing current data, with the same number of entries each, copied
+     */
+    public void rebind(@NonNull ArrayList<ChartSet> sets) {
+        Preconditions.checkNotNull(sets);
+        if (sets.isEmpty()) throw new IllegalArgumentException("Chart data can't be empty.");
+        final int size = Preconditions.checkNotNull(sets.get(0)).size();
+        for (ChartSet set : sets)
+            if (Preconditions.checkNotNull(set).size() != size)
+                throw new IllegalArgumentException("The number of entries between sets doesn't match.");
+
+        if (mAnim != null && mAnim.isPlaying())
+            mAnim.cancel();
+        if (mIsUpdateScheduled) {
+            mIsUpdateScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mUpdateFrameCallback);
+        }
+
+        // The list given may be the caller's, chart keeps its own
+        data = new ArrayList<>(sets);
+        for (ChartSet set : data)
+            set.setVisible(true);
+
+        // Scale and viewport of the previous data don't apply to the new one
+        synchronized (mPreparationLock) {
+            getValuesRenderer().resetDataBorders();
+            mViewportStart = 0;
+            mViewportEnd = -1;
+            onDataReplaced();
+        }
+
+        if (!mReadyToDraw || mPreparationExecutor != null) {
+            display();
+            return;
+        }
+
+        mIsDismissing = false;
+        if (isSparkline()) {
+            invalidate();
+            return;
+        }
+        final Rect frame = measureFrame();
+        synchronized (mPreparationLock) {
+            prepare(data, frame);
+        }
+        applyRenderingMode();
+        invalidateStaticLayer();
+        invalidate();
+    }
+
+    /**
+     * (Optional) To be overridden in order for each chart to forget anything it holds
+     * about the sets replaced by {@link #rebind(ArrayList)}.
+     */
+    void onDataReplaced() {
+    }
+
+    /**
+     * (Optional) To be overridden by charts able to be drawn as a sparkline. A sparkline
+     * skips preparation, axes, labels, regions, gestures and animations altogether,
+     * {@link #onDrawChart(Canvas, ArrayList)} being expected to project values itself.
+     *
+     * @return True if chart is drawn as a sparkline, False otherwise.
+     */
+    boolean isSparkline() {
+        return false;
+    }
+
     /**
      * Update set values. Animation support in case previously added.
      *
@@ -476,26 +1054,75 @@ public abstract class ChartView extends RelativeLayout {
         return this;
     }
 
+    /**
+     * Post new set values from any thread. Values are double buffered and taken by the set at
+     * the start of the next frame, followed by a single {@link #notifyDataUpdate()} no matter
+     * how many values were posted in between. Only the latest values posted for a set are kept.
+     *
+     * @param setIndex Index of set to be updated
+     * @param values   Array of new values, copied. Array length must match current data
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView postValues(@IntRange(from = 0) int setIndex, @NonNull float[] values) {
+        Preconditions.checkNotNull(values);
+        if (setIndex < 0) throw new IllegalArgumentException("Set index must be positive.");
+        if (mValuesBuffer.write(setIndex, values)) mMainHandler.post(mScheduleValues);
+        return this;
+    }
+
+    /**
+     * Give the sets the values posted since the previous frame and digest them once.
+     */
+    private void takePostedValues() {
+        final int nSets = mValuesBuffer.swap();
+        boolean updated = false;
+        float[] values;
+        for (int i = 0; i < nSets; i++) {
+            if ((values = mValuesBuffer.read(i)) == null) continue;
+            if (i >= data.size() || values.length != data.get(i).size()) {
+                Log.w(TAG, "Posted values don't match set " + i + ", ignored.");
+                continue;
+            }
+            data.get(i).updateValues(values);
+            updated = true;
+        }
+        if (!updated || !mReadyToDraw) return;
+        if (mIsUpdateBatched) updateData(); // Already at the start of a frame
+        else notifyDataUpdate();
+    }
+
     /**
      * Notify {@link ChartView} about updated values. {@link ChartView} will be validated.
+     * When updates are batched, see {@link #setUpdateBatching(boolean)}, the update is
+     * processed on the next frame together with any other notified until then.
      */
     public void notifyDataUpdate() {
 
+        // Sparklines are projected while drawn, invalidating is enough
+        if (isSparkline()) {
+            if (mReadyToDraw) invalidate();
+            return;
+        }
+
+        if (mIsUpdateBatched) {
+            if (!mIsUpdateScheduled) {
+                mIsUpdateScheduled = true;
+                Choreographer.getInstance().postFrameCallback(mUpdateFrameCallback);
+            }
+            return;
+        }
+
         // Ignore update if chart is not even ready to draw or if it is still animating
         if (mAnim != null && !mAnim.isPlaying() && mReadyToDraw || mAnim == null && mReadyToDraw) {
 
-            ArrayList<float[][]> oldCoords = new ArrayList<>(data.size());
-            ArrayList<float[][]> newCoords = new ArrayList<>(data.size());
+            if (mAnim != null) captureScreenPoints();
 
-            for (ChartSet set : data)
-                oldCoords.add(set.getScreenPoints());
+            digestData(data);
+            applyRenderingMode();
+            invalidateStaticLayer();
+            defineRegions(data);
 
-            digestData();
-            for (ChartSet set : data)
-                newCoords.add(set.getScreenPoints());
-
-            defineRegions(mRegions, data);
-            if (mAnim != null) mAnim.prepareUpdateAnimation(oldCoords, newCoords);
+            if (mAnim != null) mAnim.prepareUpdateAnimation(this, mUpdateStart);
             else invalidate();
 
         } else {
@@ -504,6 +1131,292 @@ public abstract class ChartView extends RelativeLayout {
         }
     }
 
+    /**
+     * Process the updates notified since the previous frame. Screen points are digested
+     * once, and the animation, if any, goes from the coordinates currently displayed towards
+     * the new ones, retargeting the update or enter animation that may be playing.
+     */
+    private void updateData() {
+        if (mIsUpdateScheduled) {
+            mIsUpdateScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mUpdateFrameCallback);
+        }
+
+        // Data will be digested once displayed, or is about to be cleared
+        if (!mReadyToDraw || data.isEmpty() || mIsDismissing && mAnim != null && mAnim.isPlaying())
+            return;
+        if (isSparkline()) {
+            invalidate();
+            return;
+        }
+
+        final boolean animate = mAnim != null;
+        if (animate) captureScreenPoints();
+
+        digestData(data);
+        applyRenderingMode();
+        invalidateStaticLayer();
+        defineRegions(data);
+
+        if (animate) mAnim.prepareUpdateAnimation(this, mUpdateStart);
+        else invalidate();
+    }
+
+    /**
+     * Copy the coordinates currently displayed, where an update animation starts from.
+     */
+    private void captureScreenPoints() {
+        if (mUpdateStart == null || mUpdateStart.length != data.size())
+            mUpdateStart = new ScreenPoints[data.size()];
+        for (int i = 0; i < data.size(); i++)
+            mUpdateStart[i] = data.get(i).getScreenPoints(mUpdateStart[i]);
+    }
+
+    /**
+     * Merge data updates and process them once per frame. Every {@link #notifyDataUpdate()}
+     * notified between two frames results in a single digestion of data, and updates notified
+     * while an animation is playing retarget it instead of being ignored.
+     * Updates must be notified from the main thread.
+     *
+     * @param batched True to process updates once per frame
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setUpdateBatching(boolean batched) {
+        mIsUpdateBatched = batched;
+        if (!batched && mIsUpdateScheduled) updateData();
+        return this;
+    }
+
+    /**
+     * Display only a range of entries, stretched along the labels axis.
+     * Entries are addressed by index, fractional indices are allowed to display part of the
+     * space between two entries. Axis values are kept so panning doesn't rescale the chart.
+     *
+     * @param start Index of first entry displayed
+     * @param end   Index of last entry displayed, must be greater than start
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setViewport(float start, float end) {
+        if (start < 0 || start >= end)
+            throw new IllegalArgumentException("Viewport start must be positive and lower than end.");
+        mViewportStart = start;
+        mViewportEnd = end;
+        if (mReadyToDraw && (mAnim == null || !mAnim.isPlaying())) applyViewport();
+        return this;
+    }
+
+    /**
+     * Display every entry again.
+     *
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView resetViewport() {
+        mViewportStart = 0;
+        mViewportEnd = -1;
+        if (mReadyToDraw && (mAnim == null || !mAnim.isPlaying())) applyViewport();
+        return this;
+    }
+
+    /**
+     * @return Index of first and last entries displayed.
+     */
+    public float[] getViewport() {
+        if (mViewportEnd < 0)
+            return new float[]{0, data.isEmpty() ? 0 : data.get(0).size() - 1};
+        return new float[]{mViewportStart, mViewportEnd};
+    }
+
+    /**
+     * Allow the user to zoom the viewport by pinching and to pan it by dragging.
+     *
+     * @param enabled True to enable zoom and pan
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setZoomEnabled(boolean enabled) {
+        mIsZoomEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Keep the viewport within the entries, spanning at least one entry step.
+     *
+     * @param sets Sets displayed
+     */
+    private void clampViewport(ArrayList<ChartSet> sets) {
+        if (mViewportEnd < 0 || sets.isEmpty()) return;
+        final float last = sets.get(0).size() - 1;
+        final float span = Math.max(1, Math.min(last, mViewportEnd - mViewportStart));
+        mViewportStart = Math.max(0, Math.min(last - span, mViewportStart));
+        mViewportEnd = mViewportStart + span;
+    }
+
+    /**
+     * Dispose the labels axis within the current viewport and digest the entries
+     * it displays. The values axis and its borders are kept.
+     */
+    private void applyViewport() {
+        clampViewport(data);
+        final AxisRenderer rndr = getLabelsRenderer();
+        final long start = beginPhase(RenderPhase.DISPOSE);
+        rndr.setViewport(mViewportStart, mViewportEnd);
+        rndr.dispose();
+        endPhase(RenderPhase.DISPOSE, start, 0);
+        invalidateStaticLayer();
+        digestData(data);
+        onPreDrawChart(data);
+        defineRegions(data);
+        invalidate();
+    }
+
+    /**
+     * @return Renderer of the axis positioning entries by their value.
+     */
+    private AxisRenderer getValuesRenderer() {
+        return (mOrientation == Orientation.VERTICAL) ? yRndr : xRndr;
+    }
+
+    /**
+     * @return Renderer of the axis positioning entries by their index.
+     */
+    private AxisRenderer getLabelsRenderer() {
+        return (mOrientation == Orientation.VERTICAL) ? xRndr : yRndr;
+    }
+
+    /**
+     * @return Index of the first entry within the viewport.
+     */
+    int getFirstVisibleEntry() {
+        return getLabelsRenderer().getFirstVisibleIndex();
+    }
+
+    /**
+     * @return Index of the last entry within the viewport.
+     */
+    int getLastVisibleEntry() {
+        return getLabelsRenderer().getLastVisibleIndex();
+    }
+
+    /**
+     * Record grid, thresholds and axes once and replay them every frame instead of
+     * drawing them again, which mostly pays off while animating. Recordings are
+     * renewed when style, bounds or border values change.
+     *
+     * @param enabled True to cache static elements
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setStaticLayerCache(boolean enabled) {
+        mIsStaticLayerCached = enabled;
+        if (!enabled) {
+            mBackgroundLayer = null;
+            mForegroundLayer = null;
+        }
+        invalidateStaticLayer();
+        return this;
+    }
+
+    /**
+     * Register a listener of the time spent in each phase of the rendering pipeline.
+     * Regardless of any listener, phases are wrapped in {@link Trace} sections
+     * to be attributed in system traces.
+     *
+     * @param listener Listener, null to stop measuring
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setOnRenderMetricsListener(@Nullable OnRenderMetricsListener listener) {
+        mMetricsListener = listener;
+        return this;
+    }
+
+    /**
+     * Prepare the chart on an executor instead of the main thread. Data normalization, borders,
+     * screen coordinates and regions are computed over a snapshot of the sets, which the chart
+     * takes on the main thread once ready. Nothing is drawn in the meantime.
+     * Axis configuration shouldn't be changed while the chart is being prepared.
+     *
+     * @param executor Executor where the chart is prepared, null to prepare it on the main thread
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setPreparationExecutor(@Nullable Executor executor) {
+        mPreparationExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Define how the chart is rasterized. By default the chart is hardware accelerated
+     * and only falls back to software when any set or entry has shadow below API 28.
+     *
+     * @param mode {@link RenderingMode} to be applied
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setRenderingMode(@NonNull RenderingMode mode) {
+        mRenderingMode = Preconditions.checkNotNull(mode);
+        if (mReadyToDraw) applyRenderingMode();
+        return this;
+    }
+
+    /**
+     * @return {@link RenderingMode} applied to the chart.
+     */
+    public RenderingMode getRenderingMode() {
+        return mRenderingMode;
+    }
+
+    /**
+     * Use a software layer only when needed to draw shadows, or when forced to.
+     * No layer is used otherwise so the chart is drawn into the hardware
+     * accelerated display list of its window.
+     */
+    private void applyRenderingMode() {
+        final boolean software;
+        if (mRenderingMode == RenderingMode.AUTO)
+            software = Build.VERSION.SDK_INT < Build.VERSION_CODES.P && hasShadow();
+        else software = mRenderingMode == RenderingMode.SOFTWARE;
+
+        final int layerType = software ? LAYER_TYPE_SOFTWARE : LAYER_TYPE_NONE;
+        if (getLayerType() != layerType) setLayerType(layerType, null);
+    }
+
+    /**
+     * @return True if any set or entry has shadow defined, False otherwise.
+     */
+    private boolean hasShadow() {
+        for (ChartSet set : data)
+            if (set.hasShadow()) return true;
+        return false;
+    }
+
+    /**
+     * Notify {@link ChartView} about values appended to its sets, such as
+     * {@link com.pengl.williamchart.model.StreamingLineSet}. Axis are neither measured
+     * nor positioned again, only the appended entries are parsed into screen points
+     * while the existing ones are translated. No animation is played.
+     */
+    public void notifyDataAppended() {
+
+        // Ignore update if chart is not even ready to draw or if it is still animating
+        if (mReadyToDraw && (mAnim == null || !mAnim.isPlaying())) {
+
+            if (mAppendedCounts == null || mAppendedCounts.length != data.size())
+                mAppendedCounts = new int[data.size()];
+            for (int s = 0; s < data.size(); s++) {
+                mAppendedCounts[s] = data.get(s).consumeAppended();
+                digestTail(data.get(s), mAppendedCounts[s]);
+            }
+            onDataDigested(data);
+
+            if (mOrientation == Orientation.VERTICAL) xRndr.updateLabels(data);
+            else yRndr.updateLabels(data);
+            invalidateStaticLayer();
+
+            defineAppendedRegions(data);
+            invalidate();
+
+        } else {
+            Log.w(TAG, "Unexpected data append notification. "
+                    + "Chart is still not displayed or still displaying.");
+        }
+    }
+
     /**
      * Toggles {@link Tooltip} between show and dismiss.
      *
@@ -766,6 +1679,40 @@ public abstract class ChartView extends RelativeLayout {
             return xRndr.getStep();
     }
 
+    /**
+     * Divide the values axis into about a number of steps. Axis borders found out from
+     * data are extended to multiples of a nice step, 1, 2 or 5 times a power of 10.
+     * Ignored if a step is defined.
+     *
+     * @param count Desired number of steps
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setTickCount(@IntRange(from = 1) int count) {
+        if (count <= 0)
+            throw new IllegalArgumentException("Number of steps must be greater than 0");
+
+        getValuesRenderer().setTickCount(count);
+        invalidateStaticLayer();
+        return this;
+    }
+
+    /**
+     * Divide the values axis into nice steps about a distance apart from each other.
+     * The number of steps is calculated from the chart's size when it's displayed.
+     * Ignored if a step is defined.
+     *
+     * @param spacing Desired distance between labels, in pixels
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setTickSpacing(@FloatRange(from = 0, fromInclusive = false) float spacing) {
+        if (spacing <= 0)
+            throw new IllegalArgumentException("Labels distance must be greater than 0");
+
+        mTickSpacing = spacing;
+        invalidateStaticLayer();
+        return this;
+    }
+
     /**
      * A step is seen as the step to be defined between 2 labels.
      * As an example a step of 2 with a max label value of 6 will end
@@ -783,6 +1730,7 @@ public abstract class ChartView extends RelativeLayout {
         else
             xRndr.setStep(step);
 
+        invalidateStaticLayer();
         return this;
     }
 
@@ -804,6 +1752,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setBorderSpacing(int spacing) {
         style.axisBorderSpacing = spacing;
+        invalidateStaticLayer();
         return this;
     }
 
@@ -823,27 +1772,41 @@ public abstract class ChartView extends RelativeLayout {
      * @return The list of {@link android.graphics.Rect} for the specified dataset
      */
     public ArrayList<Rect> getEntriesArea(int index) {
-        Preconditions.checkPositionIndex(index, mRegions.size());
-        ArrayList<Rect> result = new ArrayList<>(mRegions.get(index).size());
-        for (Region r : mRegions.get(index))
-            result.add(getEntryRect(r));
+        Preconditions.checkPositionIndex(index, mRegions.getSetsCount());
+        final int nEntries = mRegions.getEntriesCount();
+        ArrayList<Rect> result = new ArrayList<>(nEntries);
+        for (int i = 0; i < nEntries; i++)
+            result.add(getEntryRect(index, i));
 
         return result;
     }
 
     /**
-     * Get the area, {@link android.graphics.Rect}, of an entry from the entry's {@link
-     * android.graphics.Region}
+     * Find the entry whose clickable region contains a given point.
+     * Regions are indexed once defined so the search doesn't go through every entry.
+     *
+     * @param x X coordinate, relative to the view
+     * @param y Y coordinate, relative to the view
+     * @return Array containing the {@link ChartSet} index and the {@link ChartEntry} index,
+     * null if no entry is found.
+     */
+    public int[] findEntryAt(float x, float y) {
+        if (!mReadyToDraw) return null;
+        return mRegions.find((int) x, (int) y);
+    }
+
+    /**
+     * Get the area, {@link android.graphics.Rect}, of an entry from the entry's clickable region.
      *
-     * @param region Region covering {@link ChartEntry} area
+     * @param setIndex   {@link ChartSet} index
+     * @param entryIndex {@link ChartEntry} index
      * @return {@link android.graphics.Rect} specifying the area of an {@link ChartEntry}
      */
-    Rect getEntryRect(@NonNull Region region) {
-        Preconditions.checkNotNull(region);
+    Rect getEntryRect(int setIndex, int entryIndex) {
+        final Rect region = mRegions.getRect(setIndex, entryIndex);
         // Subtract the view left/top padding to correct position
-        return new Rect(region.getBounds().left - getPaddingLeft(),
-                region.getBounds().top - getPaddingTop(), region.getBounds().right - getPaddingLeft(),
-                region.getBounds().bottom - getPaddingTop());
+        region.offset(-getPaddingLeft(), -getPaddingTop());
+        return region;
     }
 
     /**
@@ -867,6 +1830,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setYLabels(@NonNull YRenderer.LabelPosition position) {
         style.yLabelsPositioning = Preconditions.checkNotNull(position);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -880,6 +1844,22 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setXLabels(@NonNull XRenderer.LabelPosition position) {
         style.xLabelsPositioning = Preconditions.checkNotNull(position);
+        invalidateStaticLayer();
+        return this;
+    }
+
+    /**
+     * 定义X标签过多、相互重叠时只绘制其中一部分的方式，仅适用于来自数据的标签。
+     *
+     * @param thinning NONE - 绘制所有标签
+     *                 STRIDE - 每隔k个标签绘制一个
+     *                 PIN_ENDS - 每隔k个标签绘制一个，始终绘制第一个和最后一个
+     *                 GREEDY - 依次绘制不与上一个重叠的标签
+     * @return {@link ChartView} self-reference.
+     */
+    public ChartView setXLabelsThinning(@NonNull XRenderer.LabelThinning thinning) {
+        style.xLabelsThinning = Preconditions.checkNotNull(thinning);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -891,6 +1871,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setLabelsFormat(@NonNull DecimalFormat format) {
         style.labelsFormat = Preconditions.checkNotNull(format);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -902,6 +1883,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setLabelsColor(@ColorInt int color) {
         style.labelsColor = color;
+        invalidateStaticLayer();
         return this;
     }
 
@@ -913,6 +1895,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setFontSize(@FloatRange(from = 0) float size) {
         style.fontSize = size;
+        invalidateStaticLayer();
         return this;
     }
 
@@ -924,6 +1907,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setTypeface(@NonNull Typeface typeface) {
         style.typeface = Preconditions.checkNotNull(typeface);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -935,6 +1919,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setXAxis(boolean bool) {
         style.hasXAxis = bool;
+        invalidateStaticLayer();
         return this;
     }
 
@@ -946,6 +1931,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setYAxis(boolean bool) {
         style.hasYAxis = bool;
+        invalidateStaticLayer();
         return this;
     }
 
@@ -963,6 +1949,7 @@ public abstract class ChartView extends RelativeLayout {
             yRndr.setBorderValues(minValue, maxValue, step);
         else
             xRndr.setBorderValues(minValue, maxValue, step);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -978,6 +1965,7 @@ public abstract class ChartView extends RelativeLayout {
             yRndr.setBorderValues(minValue, maxValue);
         else
             xRndr.setBorderValues(minValue, maxValue);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -989,6 +1977,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setAxisThickness(@FloatRange(from = 0.f) float thickness) {
         style.axisThickness = thickness;
+        invalidateStaticLayer();
         return this;
     }
 
@@ -1000,6 +1989,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setAxisColor(@ColorInt int color) {
         style.axisColor = color;
+        invalidateStaticLayer();
         return this;
     }
 
@@ -1030,6 +2020,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setTopSpacing(int spacing) {
         style.axisTopSpacing = spacing;
+        invalidateStaticLayer();
         return this;
     }
 
@@ -1047,6 +2038,7 @@ public abstract class ChartView extends RelativeLayout {
         style.gridRows = rows;
         style.gridColumns = columns;
         style.gridPaint = Preconditions.checkNotNull(paint);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -1063,6 +2055,7 @@ public abstract class ChartView extends RelativeLayout {
         mThresholdStartValues.add(startValue);
         mThresholdEndValues.add(endValue);
         style.valueThresPaint = Preconditions.checkNotNull(paint);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -1085,6 +2078,7 @@ public abstract class ChartView extends RelativeLayout {
             mThresholdEndValues.add(endValues[i]);
         }
         style.valueThresPaint = Preconditions.checkNotNull(paint);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -1100,6 +2094,7 @@ public abstract class ChartView extends RelativeLayout {
         mThresholdStartLabels.add(startLabel);
         mThresholdEndLabels.add(endLabel);
         style.labelThresPaint = Preconditions.checkNotNull(paint);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -1122,6 +2117,7 @@ public abstract class ChartView extends RelativeLayout {
             mThresholdEndLabels.add(endLabels[i]);
         }
         style.labelThresPaint = Preconditions.checkNotNull(paint);
+        invalidateStaticLayer();
         return this;
     }
 
@@ -1133,6 +2129,7 @@ public abstract class ChartView extends RelativeLayout {
      */
     public ChartView setAxisLabelsSpacing(int spacing) {
         style.axisLabelsSpacing = spacing;
+        invalidateStaticLayer();
         return this;
     }
 
@@ -1166,7 +2163,7 @@ public abstract class ChartView extends RelativeLayout {
      *
      * @param regions 可点击区域，用于检测触摸事件。
      */
-    void setClickableRegions(ArrayList<ArrayList<Region>> regions) {
+    void setClickableRegions(EntryRegions regions) {
         mRegions = regions;
     }
 
@@ -1191,6 +2188,69 @@ public abstract class ChartView extends RelativeLayout {
         VERTICAL
     }
 
+    /**
+     * 绘制方式
+     */
+    public enum RenderingMode {
+        /**
+         * Hardware accelerated unless shadows are defined and the system can't draw them
+         * with hardware acceleration, which is only possible from API 28.
+         */
+        AUTO,
+        /**
+         * Always rasterized by the CPU into a software layer.
+         */
+        SOFTWARE,
+        /**
+         * Always hardware accelerated, shadows of shapes aren't drawn below API 28.
+         */
+        HARDWARE
+    }
+
+    /**
+     * 渲染流程的各个阶段
+     */
+    public enum RenderPhase {
+        /**
+         * Axis labels and borders found from data.
+         */
+        INIT("ChartView.init"),
+        /**
+         * Space taken by axes measured and inner chart bounds negotiated.
+         */
+        MEASURE("ChartView.measure"),
+        /**
+         * Axis labels and thresholds placed.
+         */
+        DISPOSE("ChartView.dispose"),
+        /**
+         * Entry values converted into screen points.
+         */
+        DIGEST("ChartView.digest"),
+        /**
+         * Clickable regions of entries defined.
+         */
+        REGIONS("ChartView.regions"),
+        /**
+         * Grid and thresholds drawn.
+         */
+        DRAW_GRID("ChartView.drawGrid"),
+        /**
+         * Data drawn.
+         */
+        DRAW_DATA("ChartView.drawData"),
+        /**
+         * Axes and their labels drawn.
+         */
+        DRAW_AXES("ChartView.drawAxes");
+
+        private final String mSectionName;
+
+        RenderPhase(String sectionName) {
+            mSectionName = sectionName;
+        }
+    }
+
     /**
      * 负责对 Graph 进行样式化的类！
      * 可以实例化，也可以不实例化属性。
@@ -1224,6 +2284,7 @@ public abstract class ChartView extends RelativeLayout {
 
         private AxisRenderer.LabelPosition xLabelsPositioning;
         private AxisRenderer.LabelPosition yLabelsPositioning;
+        private AxisRenderer.LabelThinning xLabelsThinning;// X标签过多时的稀疏方式
 
         private Paint labelsPaint;
         private int labelsColor;
@@ -1236,6 +2297,8 @@ public abstract class ChartView extends RelativeLayout {
 
         private DecimalFormat labelsFormat;// 标签的格式化显示
 
+        private final Rect labelBounds = new Rect();// 测量标签时复用
+
         Style(Context context) {
             axisColor = DEFAULT_COLOR;
             axisThickness = context.getResources().getDimension(R.dimen.grid_thickness);
@@ -1244,6 +2307,7 @@ public abstract class ChartView extends RelativeLayout {
 
             xLabelsPositioning = AxisRenderer.LabelPosition.OUTSIDE;
             yLabelsPositioning = AxisRenderer.LabelPosition.OUTSIDE;
+            xLabelsThinning = AxisRenderer.LabelThinning.NONE;
             labelsColor = DEFAULT_COLOR;
             fontSize = context.getResources().getDimension(R.dimen.font_size);
 
@@ -1264,6 +2328,7 @@ public abstract class ChartView extends RelativeLayout {
             hasYAxis = arr.getBoolean(R.styleable.ChartAttrs_chart_axis, true);
             axisColor = arr.getColor(R.styleable.ChartAttrs_chart_axisColor, DEFAULT_COLOR);
             axisThickness = arr.getDimension(R.styleable.ChartAttrs_chart_axisThickness, context.getResources().getDimension(R.dimen.axis_thickness));
+            xLabelsThinning = AxisRenderer.LabelThinning.NONE;
 
             switch (arr.getInt(R.styleable.ChartAttrs_chart_labels, 0)) {
                 case 1:
@@ -1299,13 +2364,15 @@ public abstract class ChartView extends RelativeLayout {
         }
 
         private void init() {
-            chartPaint = new Paint();
+            if (chartPaint == null) chartPaint = new Paint();
+            else chartPaint.reset();
             chartPaint.setColor(axisColor);
             chartPaint.setStyle(Paint.Style.STROKE);
             chartPaint.setStrokeWidth(axisThickness);
             chartPaint.setAntiAlias(true);
 
-            labelsPaint = new Paint();
+            if (labelsPaint == null) labelsPaint = new Paint();
+            else labelsPaint.reset();
             labelsPaint.setColor(labelsColor);
             labelsPaint.setStyle(Paint.Style.FILL_AND_STROKE);
             labelsPaint.setAntiAlias(true);
@@ -1315,11 +2382,6 @@ public abstract class ChartView extends RelativeLayout {
             fontMaxHeight = (int) (style.labelsPaint.descent() - style.labelsPaint.ascent());
         }
 
-        private void clean() {
-            chartPaint = null;
-            labelsPaint = null;
-        }
-
         /**
          * Get label's height.
          *
@@ -1327,9 +2389,8 @@ public abstract class ChartView extends RelativeLayout {
          * @return Height of label
          */
         public int getLabelHeight(String text) {
-            final Rect rect = new Rect();
-            style.labelsPaint.getTextBounds(text, 0, text.length(), rect);
-            return rect.height();
+            style.labelsPaint.getTextBounds(text, 0, text.length(), labelBounds);
+            return labelBounds.height();
         }
 
         public Paint getChartPaint() {
@@ -1370,6 +2431,10 @@ public abstract class ChartView extends RelativeLayout {
             return xLabelsPositioning;
         }
 
+        public AxisRenderer.LabelThinning getXLabelsThinning() {
+            return xLabelsThinning;
+        }
+
         public AxisRenderer.LabelPosition getYLabelsPositioning() {
             return yLabelsPositioning;
         }
@@ -1407,17 +2472,14 @@ public abstract class ChartView extends RelativeLayout {
         public boolean onSingleTapUp(@NonNull MotionEvent ev) {
 
             if (mEntryListener != null || mTooltip != null) { // Check if tap on any entry
-                int nSets = mRegions.size();
-                int nEntries = mRegions.get(0).size();
-                for (int i = 0; i < nSets; i++)
-                    for (int j = 0; j < nEntries; j++)
-                        if (mRegions.get(i).get(j).contains((int) ev.getX(), (int) ev.getY())) {
-                            if (mEntryListener != null)  // Trigger entry callback
-                                mEntryListener.onClick(i, j, getEntryRect(mRegions.get(i).get(j)));
-                            if (mTooltip != null)  // Toggle tooltip
-                                toggleTooltip(getEntryRect(mRegions.get(i).get(j)), data.get(i).getValue(j));
-                            return true;
-                        }
+                final int[] entry = mRegions.find((int) ev.getX(), (int) ev.getY());
+                if (entry != null) {
+                    if (mEntryListener != null)  // Trigger entry callback
+                        mEntryListener.onClick(entry[0], entry[1], getEntryRect(entry[0], entry[1]));
+                    if (mTooltip != null)  // Toggle tooltip
+                        toggleTooltip(getEntryRect(entry[0], entry[1]), data.get(entry[0]).getValue(entry[1]));
+                    return true;
+                }
             }
 
             if (mChartListener != null) mChartListener.onClick(ChartView.this);
@@ -1425,6 +2487,24 @@ public abstract class ChartView extends RelativeLayout {
             return true;
         }
 
+        @Override
+        public boolean onScroll(MotionEvent e1, @NonNull MotionEvent e2, float distanceX, float distanceY) {
+
+            if (!mIsZoomEnabled || !mReadyToDraw || mScaleGestureDetector.isInProgress()
+                    || data.isEmpty() || data.get(0).size() < 2)
+                return false;
+
+            // Convert the dragged distance into entry index units
+            final AxisRenderer rndr = getLabelsRenderer();
+            final float step = rndr.parsePos(1, 0) - rndr.parsePos(0, 0);
+            final float delta = ((mOrientation == Orientation.VERTICAL) ? distanceX : distanceY) / step;
+            final float[] viewport = getViewport();
+            mViewportStart = viewport[0] + delta;
+            mViewportEnd = viewport[1] + delta;
+            applyViewport();
+            return true;
+        }
+
         @Override
         public boolean onDown(@NonNull MotionEvent e) {
             return true;
@@ -1432,4 +2512,26 @@ public abstract class ChartView extends RelativeLayout {
 
     }
 
+
+    private class ScaleListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+
+        @Override
+        public boolean onScale(@NonNull ScaleGestureDetector detector) {
+
+            if (!mReadyToDraw || data.isEmpty() || data.get(0).size() < 2) return false;
+
+            // Zoom around the entry index under the pinch focus
+            final AxisRenderer rndr = getLabelsRenderer();
+            final float step = rndr.parsePos(1, 0) - rndr.parsePos(0, 0);
+            final float focus = (mOrientation == Orientation.VERTICAL) ? detector.getFocusX() : detector.getFocusY();
+            final float focusIndex = (focus - rndr.parsePos(0, 0)) / step;
+            final float[] viewport = getViewport();
+            mViewportStart = focusIndex - (focusIndex - viewport[0]) / detector.getScaleFactor();
+            mViewportEnd = focusIndex + (viewport[1] - focusIndex) / detector.getScaleFactor();
+            applyViewport();
+            return true;
+        }
+
+    }
+
 }
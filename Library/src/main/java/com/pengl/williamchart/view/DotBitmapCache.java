@@ -0,0 +1,82 @@
+package com.pengl.williamchart.view;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+
+import com.pengl.williamchart.util.Tools;
+
+/**
+ * Bitmaps of dot drawables, rasterized once and kept while recently used.
+ * Drawables are keyed by identity, as they don't override equals, and the cache is bounded
+ * by the number of bytes of its bitmaps. Bitmaps of {@link BitmapDrawable} aren't rasterized
+ * but taken from the drawable, so they are never recycled by the cache.
+ */
+final class DotBitmapCache {
+
+    /**
+     * Default maximum number of bytes held
+     */
+    static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    private final LruCache<Drawable, Bitmap> mBitmaps;
+
+    /**
+     * Whether bitmaps removed are to be recycled, only while releasing since an evicted
+     * bitmap may still be referenced by the frame being drawn
+     */
+    private boolean mIsReleasing;
+
+    /**
+     * @param maxBytes Maximum number of bytes of bitmaps held
+     */
+    DotBitmapCache(int maxBytes) {
+        mBitmaps = new LruCache<Drawable, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Drawable key, Bitmap value) {
+                return value.getByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Drawable key, Bitmap oldValue, Bitmap newValue) {
+                if (mIsReleasing && !(key instanceof BitmapDrawable)) oldValue.recycle();
+            }
+        };
+    }
+
+    /**
+     * Get the bitmap of a drawable, rasterizing it if not cached.
+     *
+     * @param drawable Dot's drawable
+     * @return Bitmap to be drawn
+     */
+    Bitmap get(Drawable drawable) {
+        Bitmap result = mBitmaps.get(drawable);
+        if (result == null) {
+            result = Tools.drawableToBitmap(drawable);
+            mBitmaps.put(drawable, result);
+        }
+        return result;
+    }
+
+    /**
+     * Change the maximum number of bytes of bitmaps held, evicting the least recently used.
+     *
+     * @param maxBytes Maximum number of bytes
+     */
+    void resize(int maxBytes) {
+        mBitmaps.resize(maxBytes);
+    }
+
+    /**
+     * Remove every bitmap, recycling the ones rasterized. To be called once
+     * nothing drawn with them is to be drawn again, such as when detached from window.
+     */
+    void release() {
+        mIsReleasing = true;
+        mBitmaps.evictAll();
+        mIsReleasing = false;
+    }
+
+}
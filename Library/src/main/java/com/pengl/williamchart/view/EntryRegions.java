@@ -0,0 +1,409 @@
+package com.pengl.williamchart.view;
+
+import android.graphics.Rect;
+
+import java.util.Arrays;
+
+/**
+ * Clickable regions of every entry of a {@link ChartView}, indexed to find which
+ * entry, if any, contains a given point.
+ * Region bounds are kept in a flat int array, 4 values per entry. Once defined,
+ * {@link #build()} indexes them either by x, binary searching each set, or in a
+ * uniform grid.
+ * Regions sorted by x can also be shifted towards the start of their set, as entries
+ * are when values are appended, without defining them again. Each set then keeps the
+ * slot of its first entry and a translation applied to every region stored.
+ */
+final class EntryRegions {
+
+    /**
+     * Maximum number of grid cells per region
+     */
+    private static final int MAX_CELLS_FACTOR = 4;
+
+    /**
+     * Whether regions of each set are sorted by their left side
+     */
+    private final boolean mSortedByX;
+
+    private int mSets;
+
+    private int mEntries;
+
+    /**
+     * Left, top, right and bottom of each region, set major
+     */
+    private int[] mBounds;
+
+    /**
+     * Slot of the first entry of each set, and translation of the regions of each set
+     */
+    private int[] mHeads;
+    private double[] mOffsetXs;
+    private double[] mOffsetYs;
+
+    /**
+     * Widest region of each set, used when sorted by x
+     */
+    private int[] mMaxWidths;
+
+    /**
+     * Last entry of each set with a region, used when sorted by x
+     */
+    private int[] mLastDefined;
+
+    /**
+     * Left side of each region used when binary searching, entries without a region
+     * take the left side of the previous defined one, or the maximum once past the
+     * last defined one, so the keys stay ascending
+     */
+    private int[] mSearchLefts;
+
+    /**
+     * Grid geometry and regions of each cell, cell i holds
+     * mCellRegions[mCellStarts[i]] to mCellRegions[mCellStarts[i + 1] - 1]
+     */
+    private int mGridLeft;
+    private int mGridTop;
+    private int mGridColumns;
+    private int mGridRows;
+    private float mCellWidth;
+    private float mCellHeight;
+    private int[] mCellStarts;
+    private int[] mCellRegions;
+
+    /**
+     * @param sortedByX True if regions of each set are placed in ascending order
+     *                  of their left side, as in line charts, False to index them in a grid.
+     */
+    EntryRegions(boolean sortedByX) {
+        mSortedByX = sortedByX;
+        mBounds = new int[0];
+    }
+
+    /**
+     * Prepare for a new definition of regions, every region is left empty.
+     *
+     * @param nSets    Number of sets
+     * @param nEntries Number of entries per set
+     */
+    void reset(int nSets, int nEntries) {
+        mSets = nSets;
+        mEntries = nEntries;
+        if (mBounds.length != nSets * nEntries * 4)
+            mBounds = new int[nSets * nEntries * 4];
+        else
+            Arrays.fill(mBounds, 0);
+        if (mHeads == null || mHeads.length != nSets) {
+            mHeads = new int[nSets];
+            mOffsetXs = new double[nSets];
+            mOffsetYs = new double[nSets];
+        } else {
+            Arrays.fill(mHeads, 0);
+            Arrays.fill(mOffsetXs, 0);
+            Arrays.fill(mOffsetYs, 0);
+        }
+    }
+
+    /**
+     * Define the region of an entry.
+     *
+     * @param set    Set index
+     * @param entry  Entry index
+     * @param left   Left side of region
+     * @param top    Top side of region
+     * @param right  Right side of region
+     * @param bottom Bottom side of region
+     */
+    void set(int set, int entry, int left, int top, int right, int bottom) {
+        final int i = region(set, entry) * 4;
+        mBounds[i] = (int) Math.round(left - mOffsetXs[set]);
+        mBounds[i + 1] = (int) Math.round(top - mOffsetYs[set]);
+        mBounds[i + 2] = (int) Math.round(right - mOffsetXs[set]);
+        mBounds[i + 3] = (int) Math.round(bottom - mOffsetYs[set]);
+    }
+
+    /**
+     * Leave the region of an entry empty.
+     *
+     * @param set   Set index
+     * @param entry Entry index
+     */
+    void clear(int set, int entry) {
+        Arrays.fill(mBounds, region(set, entry) * 4, region(set, entry) * 4 + 4, 0);
+    }
+
+    /**
+     * Shift the regions of a set a number of entries towards its start, translating them.
+     * The regions shifted out of the start are dropped, and the last entries are left
+     * without a region. Only allowed once regions sorted by x are indexed, and to be
+     * followed by {@link #index(int, int, int)} for every entry whose region is then changed.
+     *
+     * @param set      Set index
+     * @param nShifted Number of entries shifted
+     * @param dx       Horizontal translation of regions
+     * @param dy       Vertical translation of regions
+     */
+    void shift(int set, int nShifted, float dx, float dy) {
+        if (!mSortedByX || mSearchLefts == null)
+            throw new IllegalStateException("Only indexed regions sorted by x can be shifted.");
+        if (nShifted <= 0) return;
+        nShifted = Math.min(nShifted, mEntries);
+
+        mHeads[set] = (mHeads[set] + nShifted) % mEntries;
+        mOffsetXs[set] += dx;
+        mOffsetYs[set] += dy;
+        mLastDefined[set] -= nShifted;
+        for (int e = mEntries - nShifted; e < mEntries; e++) {
+            clear(set, e);
+            mSearchLefts[region(set, e)] = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Index again the regions of a range of entries of a set after they changed.
+     *
+     * @param set  Set index
+     * @param from First entry, inclusive
+     * @param to   Last entry, exclusive
+     */
+    void index(int set, int from, int to) {
+        int left = (from > 0) ? mSearchLefts[region(set, from - 1)] : Integer.MIN_VALUE;
+        int i;
+        for (int e = from; e < to; e++) {
+            i = region(set, e) * 4;
+            if (mBounds[i] < mBounds[i + 2] && mBounds[i + 1] < mBounds[i + 3]) {
+                left = mBounds[i];
+                if (mBounds[i + 2] - left > mMaxWidths[set]) mMaxWidths[set] = mBounds[i + 2] - left;
+                if (e > mLastDefined[set]) mLastDefined[set] = e;
+            }
+            mSearchLefts[i / 4] = left;
+        }
+        // Entries left without a region past the last defined one
+        for (int e = Math.max(from, mLastDefined[set] + 1); e < to; e++)
+            mSearchLefts[region(set, e)] = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Index the defined regions. Must be called after regions are defined
+     * and before looking for entries.
+     */
+    void build() {
+        if (mSortedByX) buildSortedByX();
+        else buildGrid();
+    }
+
+    /**
+     * Find the entry whose region contains a point. If several regions contain it the
+     * one with lowest set index, and then lowest entry index, is returned.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Array containing set index and entry index, null if no region contains the point.
+     */
+    int[] find(int x, int y) {
+        final int region = mSortedByX ? findSortedByX(x, y) : findInGrid(x, y);
+        if (region == -1) return null;
+        final int set = region / mEntries;
+        final int entry = region % mEntries - mHeads[set];
+        return new int[]{set, (entry >= 0) ? entry : entry + mEntries};
+    }
+
+    /**
+     * Get the bounds of an entry's region.
+     *
+     * @param set   Set index
+     * @param entry Entry index
+     * @return {@link Rect} with the region's bounds.
+     */
+    Rect getRect(int set, int entry) {
+        final int i = region(set, entry) * 4;
+        if (mBounds[i] == 0 && mBounds[i + 1] == 0 && mBounds[i + 2] == 0 && mBounds[i + 3] == 0)
+            return new Rect();
+        final int dx = (int) Math.round(mOffsetXs[set]);
+        final int dy = (int) Math.round(mOffsetYs[set]);
+        return new Rect(mBounds[i] + dx, mBounds[i + 1] + dy, mBounds[i + 2] + dx, mBounds[i + 3] + dy);
+    }
+
+    /**
+     * @return Number of sets with regions.
+     */
+    int getSetsCount() {
+        return mSets;
+    }
+
+    /**
+     * @return Number of entries with regions per set.
+     */
+    int getEntriesCount() {
+        return mEntries;
+    }
+
+    /**
+     * Map an entry into the region holding its bounds.
+     */
+    private int region(int set, int entry) {
+        final int slot = mHeads[set] + entry;
+        return set * mEntries + ((slot < mEntries) ? slot : slot - mEntries);
+    }
+
+    private boolean contains(int region, double x, double y) {
+        final int i = region * 4;
+        return mBounds[i] < mBounds[i + 2] && mBounds[i + 1] < mBounds[i + 3]
+                && x >= mBounds[i] && x < mBounds[i + 2]
+                && y >= mBounds[i + 1] && y < mBounds[i + 3];
+    }
+
+    private void buildSortedByX() {
+        if (mMaxWidths == null || mMaxWidths.length != mSets) {
+            mMaxWidths = new int[mSets];
+            mLastDefined = new int[mSets];
+        }
+        if (mSearchLefts == null || mSearchLefts.length != mSets * mEntries)
+            mSearchLefts = new int[mSets * mEntries];
+
+        // Entries out of the viewport have no region
+        for (int s = 0; s < mSets; s++) {
+            mMaxWidths[s] = 0;
+            mLastDefined[s] = -1;
+            index(s, 0, mEntries);
+        }
+    }
+
+    private int findSortedByX(int x, int y) {
+        int first;
+        int region;
+        double setX;
+        double setY;
+        for (int s = 0; s < mSets; s++) {
+            // Point within the set's regions as stored
+            setX = x - mOffsetXs[s];
+            setY = y - mOffsetYs[s];
+            // Only regions with left side within (x - widest region, x] may contain x
+            first = lowerBound(s, setX - mMaxWidths[s]);
+            for (int e = first; e < mEntries; e++) {
+                region = region(s, e);
+                if (mSearchLefts[region] > setX) break;
+                if (contains(region, setX, setY)) return region;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * First entry of a set whose region's left side is greater than a given value.
+     */
+    private int lowerBound(int set, double left) {
+        int low = 0;
+        int high = mEntries;
+        int middle;
+        while (low < high) {
+            middle = (low + high) >>> 1;
+            if (mSearchLefts[region(set, middle)] <= left) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    private void buildGrid() {
+        final int nRegions = mSets * mEntries;
+
+        int left = Integer.MAX_VALUE;
+        int top = Integer.MAX_VALUE;
+        int right = Integer.MIN_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        long sumWidth = 0;
+        long sumHeight = 0;
+        int nDefined = 0;
+        for (int r = 0; r < nRegions; r++) {
+            if (mBounds[r * 4] >= mBounds[r * 4 + 2] || mBounds[r * 4 + 1] >= mBounds[r * 4 + 3])
+                continue;
+            left = Math.min(left, mBounds[r * 4]);
+            top = Math.min(top, mBounds[r * 4 + 1]);
+            right = Math.max(right, mBounds[r * 4 + 2]);
+            bottom = Math.max(bottom, mBounds[r * 4 + 3]);
+            sumWidth += mBounds[r * 4 + 2] - mBounds[r * 4];
+            sumHeight += mBounds[r * 4 + 3] - mBounds[r * 4 + 1];
+            nDefined++;
+        }
+
+        if (nDefined == 0) {
+            mGridColumns = 0;
+            mGridRows = 0;
+            return;
+        }
+
+        // Cells about the size of an average region, bounded by the number of regions
+        mGridLeft = left;
+        mGridTop = top;
+        mGridColumns = (int) Math.max(1, Math.min(nDefined, (right - left) * (long) nDefined / sumWidth));
+        mGridRows = (int) Math.max(1, Math.min(nDefined, (bottom - top) * (long) nDefined / sumHeight));
+        while ((long) mGridColumns * mGridRows > (long) nDefined * MAX_CELLS_FACTOR) {
+            if (mGridColumns > mGridRows) mGridColumns = (mGridColumns + 1) / 2;
+            else mGridRows = (mGridRows + 1) / 2;
+        }
+        mCellWidth = (float) (right - left) / mGridColumns;
+        mCellHeight = (float) (bottom - top) / mGridRows;
+
+        final int nCells = mGridColumns * mGridRows;
+        if (mCellStarts == null || mCellStarts.length < nCells + 1)
+            mCellStarts = new int[nCells + 1];
+        else
+            Arrays.fill(mCellStarts, 0);
+
+        // Count regions per cell, then fill them in ascending order
+        for (int r = 0; r < nRegions; r++)
+            forEachCell(r, true);
+        for (int c = 1; c < nCells; c++)
+            mCellStarts[c] += mCellStarts[c - 1];
+        mCellStarts[nCells] = mCellStarts[nCells - 1];
+        if (mCellRegions == null || mCellRegions.length < mCellStarts[nCells])
+            mCellRegions = new int[mCellStarts[nCells]];
+        for (int r = nRegions - 1; r >= 0; r--)
+            forEachCell(r, false);
+    }
+
+    /**
+     * Either count a region in, or place it into, every cell it overlaps.
+     * Placing decrements the cell's end until it becomes the cell's start, so regions
+     * must be placed in descending order to keep them ascending within each cell.
+     */
+    private void forEachCell(int region, boolean count) {
+        final int i = region * 4;
+        if (mBounds[i] >= mBounds[i + 2] || mBounds[i + 1] >= mBounds[i + 3]) return;
+
+        final int firstColumn = column(mBounds[i]);
+        final int lastColumn = column(mBounds[i + 2] - 1);
+        final int firstRow = row(mBounds[i + 1]);
+        final int lastRow = row(mBounds[i + 3] - 1);
+        int cell;
+        for (int row = firstRow; row <= lastRow; row++)
+            for (int col = firstColumn; col <= lastColumn; col++) {
+                cell = row * mGridColumns + col;
+                if (count) mCellStarts[cell]++;
+                else mCellRegions[--mCellStarts[cell]] = region;
+            }
+    }
+
+    private int findInGrid(int x, int y) {
+        if (mGridColumns == 0) return -1;
+
+        final int col = (int) ((x - mGridLeft) / mCellWidth);
+        final int row = (int) ((y - mGridTop) / mCellHeight);
+        if (x < mGridLeft || y < mGridTop || col >= mGridColumns || row >= mGridRows) return -1;
+
+        final int cell = row * mGridColumns + col;
+        for (int k = mCellStarts[cell]; k < mCellStarts[cell + 1]; k++)
+            if (contains(mCellRegions[k], x, y)) return mCellRegions[k];
+        return -1;
+    }
+
+    private int column(int x) {
+        return Math.min(mGridColumns - 1, Math.max(0, (int) ((x - mGridLeft) / mCellWidth)));
+    }
+
+    private int row(int y) {
+        return Math.min(mGridRows - 1, Math.max(0, (int) ((y - mGridTop) / mCellHeight)));
+    }
+
+}
@@ -4,30 +4,52 @@ import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.DashPathEffect;
 import android.graphics.LinearGradient;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.Region;
 import android.graphics.Shader;
+import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
 
 import androidx.annotation.FloatRange;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
 
+import com.pengl.williamchart.model.ChartEntry;
 import com.pengl.williamchart.model.ChartSet;
 import com.pengl.williamchart.model.LineSet;
 import com.pengl.williamchart.model.Point;
+import com.pengl.williamchart.util.Downsampler;
+import com.pengl.williamchart.util.MinMaxPyramid;
+import com.pengl.williamchart.util.Preconditions;
+import com.pengl.williamchart.util.Smoothing;
 import com.pengl.williamchart.util.Tools;
 import com.pengl.williamchart.R;
 
+import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * 折线图
  */
 public class LineChartView extends ChartView {
 
-    private static final float SMOOTH_FACTOR = 0.15f;
+    private static final float SMOOTH_FACTOR = Smoothing.DEFAULT_FACTOR;
+
+    private static final float VALUE_OFFSET_FACTOR = 1.75f;
+
+    /**
+     * Points per horizontal pixel above which the level of detail pyramid is used
+     */
+    private static final int LOD_POINTS_PER_COLUMN = 4;
+
+    /**
+     * Thickness, in pixels, up to which a line looks the same drawn as independent segments
+     */
+    private static final float MAX_SEGMENTS_THICKNESS = 1f;
 
     /**
      * Style applied to line chart
@@ -39,11 +61,81 @@ public class LineChartView extends ChartView {
      */
     private float mClickableRadius;
 
+    /**
+     * Decimation applied to sets with more points than horizontal pixels
+     */
+    private Decimation mDecimation;
+
+    /**
+     * Indices of the points to be drawn for each set, null when all of them are drawn
+     */
+    private int[][] mDrawIndices;
+
+    /**
+     * Number of indices to be drawn for each set
+     */
+    private int[] mDrawCount;
+
+    /**
+     * First index of the range drawn for each set, within the viewport
+     */
+    private int[] mDrawBegin;
+
+    /**
+     * Indices selected from the level of detail pyramid of each set while digesting,
+     * count is -1 when every entry within the viewport was digested
+     */
+    private int[][] mLodIndices;
+    private int[] mLodCount;
+    private int[] mLodVersions;
+
+    /**
+     * Screen points copied from a set while decimating
+     */
+    private float[] mDecimationXs;
+    private float[] mDecimationYs;
+
+    /**
+     * Screen points of a smooth line, with the neighbours of both ends, and its control points
+     */
+    private float[] mSmoothXs;
+    private float[] mSmoothYs;
+    private float[] mSmoothControls;
+
+    /**
+     * Interleaved coordinates of dots or line segments drawn in a single call
+     */
+    private float[] mBatchCoords;
+
+    /**
+     * Objects reused between frames for each set
+     */
+    private final ArrayList<SetCache> mSetCaches;
+
+    /**
+     * Bitmaps of dot drawables, least recently used evicted
+     */
+    private final DotBitmapCache mDotBitmaps;
+
+    /**
+     * Distance between a value and its point when point has no radius
+     */
+    private final float mDefaultValueOffset;
+
+    /**
+     * Whether lines are drawn as sparklines
+     */
+    private boolean mIsSparkline;
+
     public LineChartView(Context context, AttributeSet attrs) {
         super(context, attrs);
         setOrientation(Orientation.VERTICAL);
         mStyle = new Style(context.getTheme().obtainStyledAttributes(attrs, R.styleable.ChartAttrs, 0, 0));
         mClickableRadius = context.getResources().getDimension(R.dimen.dot_region_radius);
+        mDecimation = Decimation.NONE;
+        mSetCaches = new ArrayList<>();
+        mDotBitmaps = new DotBitmapCache(DotBitmapCache.DEFAULT_MAX_BYTES);
+        mDefaultValueOffset = Tools.fromDpToPx(4) * VALUE_OFFSET_FACTOR;
     }
 
     public LineChartView(Context context) {
@@ -51,6 +143,10 @@ public class LineChartView extends ChartView {
         setOrientation(Orientation.VERTICAL);
         mStyle = new Style();
         mClickableRadius = context.getResources().getDimension(R.dimen.dot_region_radius);
+        mDecimation = Decimation.NONE;
+        mSetCaches = new ArrayList<>();
+        mDotBitmaps = new DotBitmapCache(DotBitmapCache.DEFAULT_MAX_BYTES);
+        mDefaultValueOffset = Tools.fromDpToPx(4) * VALUE_OFFSET_FACTOR;
     }
 
     /**
@@ -64,6 +160,13 @@ public class LineChartView extends ChartView {
         return i;
     }
 
+    /**
+     * 给定绘制的第几个点，返回该点在数据集中的索引。
+     */
+    private static int di(int[] indices, int begin, int k) {
+        return (indices != null) ? indices[k] : begin + k;
+    }
+
     @Override
     public void onAttachedToWindow() {
         super.onAttachedToWindow();
@@ -73,18 +176,38 @@ public class LineChartView extends ChartView {
     @Override
     public void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        mStyle.clean();
+        mDotBitmaps.release();
     }
 
     @Override
     public void onDrawChart(Canvas canvas, ArrayList<ChartSet> data) {
+        if (mIsSparkline) {
+            drawSparklines(canvas, data);
+            return;
+        }
+
         LineSet lineSet;
-        Path linePath;
+        SetCache cache;
+        int[] indices;
+        int begin;
+        int count;
 
-        for (ChartSet set : data) {
-            lineSet = (LineSet) set;
+        for (int s = 0; s < data.size(); s++) {
+            lineSet = (LineSet) data.get(s);
+            cache = getSetCache(s);
 
             if (lineSet.isVisible()) {
+                if (mDrawCount != null && s < mDrawCount.length) {
+                    indices = mDrawIndices[s];
+                    begin = mDrawBegin[s];
+                    count = mDrawCount[s];
+                } else {
+                    indices = null;
+                    begin = lineSet.getBegin();
+                    count = lineSet.getEnd() - lineSet.getBegin();
+                }
+                if (count == 0) continue;
+
                 mStyle.mLinePaint.setColor(lineSet.getColor());
                 mStyle.mLinePaint.setStrokeWidth(lineSet.getThickness());
                 applyShadow(mStyle.mLinePaint,
@@ -95,87 +218,195 @@ public class LineChartView extends ChartView {
                         lineSet.getShadowColor());
 
                 if (lineSet.isDashed())
-                    mStyle.mLinePaint.setPathEffect(new DashPathEffect(lineSet.getDashedIntervals(), lineSet.getDashedPhase()));
+                    mStyle.mLinePaint.setPathEffect(cache.getDashPathEffect(lineSet));
                 else
                     mStyle.mLinePaint.setPathEffect(null);
 
-                if (lineSet.isSmooth())
-                    linePath = createSmoothLinePath(lineSet);
-                else
-                    linePath = createLinePath(lineSet);
-
-                // Draw background
-                if (lineSet.hasFill() || lineSet.hasGradientFill())
-                    canvas.drawPath(createBackgroundPath(new Path(linePath), lineSet), mStyle.mFillPaint);
-
-                // Draw line
-                canvas.drawPath(linePath, mStyle.mLinePaint);
+                if (hasPlainSegments(lineSet)) {
+                    // Draw line
+                    drawLineSegments(canvas, lineSet, indices, begin, count);
+                } else {
+                    if (lineSet.isSmooth())
+                        createSmoothLinePath(cache.linePath, lineSet, indices, begin, count);
+                    else
+                        createLinePath(cache.linePath, lineSet, indices, begin, count);
+
+                    // Draw background
+                    if (lineSet.hasFill() || lineSet.hasGradientFill()) {
+                        cache.fillPath.set(cache.linePath);
+                        canvas.drawPath(createBackgroundPath(cache, lineSet, indices, begin, count), mStyle.mFillPaint);
+                    }
+
+                    // Draw line
+                    canvas.drawPath(cache.linePath, mStyle.mLinePaint);
+                }
 
                 // Draw points
-                drawPoints(canvas, lineSet);
+                drawPoints(canvas, lineSet, indices, begin, count);
 
                 // draw line value
                 if (lineSet.isEnableDrawValue())
-                    drawValue(canvas, lineSet);
+                    drawValue(canvas, lineSet, cache, indices, begin, count);
+            }
+        }
+
+    }
+
+    /**
+     * Draw every visible set as a sparkline, values projected straight into its path.
+     * Sets share the same scale, from the lowest to the highest value drawn among them,
+     * and their entries are evenly spread across the chart's width.
+     */
+    private void drawSparklines(Canvas canvas, ArrayList<ChartSet> data) {
+        // Extent of the values drawn, within each set's begin and end
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        LineSet lineSet;
+        for (ChartSet set : data) {
+            lineSet = (LineSet) set;
+            if (!lineSet.isVisible() || lineSet.getEnd() - lineSet.getBegin() < 2) continue;
+            for (int i = lineSet.getBegin(); i < lineSet.getEnd(); i++) {
+                min = Math.min(min, lineSet.getValue(i));
+                max = Math.max(max, lineSet.getValue(i));
             }
         }
+        if (min > max) return;
+
+        final float left = getPaddingLeft();
+        final float right = getWidth() - getPaddingRight();
+        final float xStep = (data.get(0).size() > 1) ? (right - left) / (data.get(0).size() - 1) : 0;
+
+        Path path;
+        float inset;
+        float top;
+        float yScale;
+        for (int s = 0; s < data.size(); s++) {
+            lineSet = (LineSet) data.get(s);
+            if (!lineSet.isVisible() || lineSet.getEnd() - lineSet.getBegin() < 2) continue;
+
+            // Keep the line's stroke within the chart
+            inset = lineSet.getThickness() / 2;
+            top = getPaddingTop() + inset;
+            yScale = (max > min) ? (getHeight() - getPaddingBottom() - inset - top) / (max - min) : 0;
+
+            path = getSetCache(s).linePath;
+            path.rewind();
+            for (int i = lineSet.getBegin(); i < lineSet.getEnd(); i++) {
+                if (i == lineSet.getBegin())
+                    path.moveTo(left + i * xStep, top + (max - lineSet.getValue(i)) * yScale);
+                else
+                    path.lineTo(left + i * xStep, top + (max - lineSet.getValue(i)) * yScale);
+            }
 
+            mStyle.mLinePaint.setColor(lineSet.getColor());
+            mStyle.mLinePaint.setStrokeWidth(lineSet.getThickness());
+            mStyle.mLinePaint.setAlpha((int) (lineSet.getAlpha() * ChartView.Style.FULL_ALPHA));
+            mStyle.mLinePaint.clearShadowLayer();
+            mStyle.mLinePaint.setPathEffect(null);
+            canvas.drawPath(path, mStyle.mLinePaint);
+        }
     }
 
     /**
      * 绘制文字
      */
-    private void drawValue(Canvas canvas, LineSet lineSet) {
-        int begin = lineSet.getBegin();
-        int end = lineSet.getEnd();
+    private void drawValue(Canvas canvas, LineSet lineSet, SetCache cache, int[] indices, int begin, int count) {
+        int i;
         Point dot;
         float baselineY;
         float baseLinX;
 
-        for (int i = begin; i < end; i++) {
-            dot = (Point) lineSet.getEntry(i);
-            // Style dot
-            mStyle.mValuePaint.setColor(lineSet.getValueColor());
-            mStyle.mValuePaint.setTextSize(lineSet.getValueTextSize());
+        // Style value
+        mStyle.mValuePaint.setColor(lineSet.getValueColor());
+        mStyle.mValuePaint.setTextSize(lineSet.getValueTextSize());
+        cache.prepareValues(lineSet, style.getLabelsFormat(), mStyle.mValuePaint);
+
+        for (int k = 0; k < count; k++) {
+            i = di(indices, begin, k);
+            dot = (Point) lineSet.getEntryStyle(i);
             // Draw value
-            String value = style.getLabelsFormat().format(dot.getValue());
-            float textX = mStyle.mValuePaint.measureText(value);
-            float yOffset = dot.getRadius() == 0 ? Tools.fromDpToPx(4) * 1.75f : dot.getRadius() * 1.75f;
-            baselineY = dot.getY() - yOffset;
-            baseLinX = dot.getX() - textX / 2;
-            canvas.drawText(value, baseLinX, baselineY, mStyle.mValuePaint);
+            float yOffset = dot.getRadius() == 0 ? mDefaultValueOffset : dot.getRadius() * VALUE_OFFSET_FACTOR;
+            baselineY = lineSet.getY(i) - yOffset;
+            baseLinX = lineSet.getX(i) - cache.getValueWidth(i) / 2;
+            canvas.drawText(cache.getValue(i), baseLinX, baselineY, mStyle.mValuePaint);
         }
     }
 
     @Override
-    void defineRegions(ArrayList<ArrayList<Region>> regions, ArrayList<ChartSet> data) {
-        float x, y;
+    void defineRegions(EntryRegions regions, ArrayList<ChartSet> data) {
         int dataSize = data.size();
-        int setSize;
+        int first = getFirstVisibleEntry();
+        int last = getLastVisibleEntry();
 
+        // Only digested entries have screen points, the ones within the viewport
+        // or the ones selected from the level of detail pyramid
         for (int i = 0; i < dataSize; i++) {
-            setSize = data.get(0).size();
-            for (int j = 0; j < setSize; j++) {
-                x = data.get(i).getEntry(j).getX();
-                y = data.get(i).getEntry(j).getY();
-                regions.get(i).get(j).set(
-                        (int) (x - mClickableRadius), (int) (y - mClickableRadius),
-                        (int) (x + mClickableRadius), (int) (y + mClickableRadius));
+            if (mLodCount != null && i < mLodCount.length && mLodCount[i] >= 0) {
+                for (int k = 0; k < mLodCount[i]; k++)
+                    defineRegion(regions, data.get(i), i, mLodIndices[i][k]);
+            } else {
+                for (int j = first; j <= last; j++)
+                    defineRegion(regions, data.get(i), i, j);
             }
         }
     }
 
+    private void defineRegion(EntryRegions regions, ChartSet set, int setIndex, int index) {
+        final float x = set.getX(index);
+        final float y = set.getY(index);
+        regions.set(setIndex, index, (int) (x - mClickableRadius), (int) (y - mClickableRadius),
+                (int) (x + mClickableRadius), (int) (y + mClickableRadius));
+    }
+
+
+    @Override
+    boolean defineAppendedRegions(EntryRegions regions, ChartSet set, int setIndex,
+                                  int nAppended, float dx, float dy) {
+        // Regions of entries selected from the pyramid don't follow the entries shifted
+        if (mLodCount != null && setIndex < mLodCount.length && mLodCount[setIndex] >= 0)
+            return false;
+        if (nAppended == 0) return true;
+
+        final int first = getFirstVisibleEntry();
+        final int last = getLastVisibleEntry();
+        if (nAppended > last - first) return false;
+
+        regions.shift(setIndex, nAppended, dx, dy);
+
+        // Entries shifted out of the viewport's start
+        final int cleared = Math.max(first - nAppended, 0);
+        for (int j = cleared; j < first; j++)
+            regions.clear(setIndex, j);
+        regions.index(setIndex, cleared, first);
+
+        // Entries shifted, or appended, into the viewport's end
+        for (int j = last - nAppended + 1; j <= last; j++)
+            defineRegion(regions, set, setIndex, j);
+        regions.index(setIndex, last - nAppended + 1, last + 1);
+        return true;
+    }
+
+    @Override
+    boolean hasRegionsSortedByX() {
+        return true;
+    }
 
     /**
      * Responsible for drawing points
      */
-    private void drawPoints(Canvas canvas, LineSet set) {
-        int begin = set.getBegin();
-        int end = set.getEnd();
+    private void drawPoints(Canvas canvas, LineSet set, int[] indices, int begin, int count) {
+        int i;
         Point dot;
 
-        for (int i = begin; i < end; i++) {
-            dot = (Point) set.getEntry(i);
+        dot = (Point) set.getEntryStyle(di(indices, begin, 0));
+        if (hasUniformPoints(set, dot, indices, begin, count)) {
+            if (dot.isVisible()) drawUniformPoints(canvas, set, dot, indices, begin, count);
+            return;
+        }
+
+        for (int k = 0; k < count; k++) {
+            i = di(indices, begin, k);
+            dot = (Point) set.getEntryStyle(i);
 
             if (dot.isVisible()) {
 
@@ -190,7 +421,7 @@ public class LineChartView extends ChartView {
                         dot.getShadowColor());
 
                 // Draw dot
-                canvas.drawCircle(dot.getX(), dot.getY(), dot.getRadius(), mStyle.mDotsPaint);
+                canvas.drawCircle(set.getX(i), set.getY(i), dot.getRadius(), mStyle.mDotsPaint);
 
                 // Draw dots stroke
                 if (dot.hasStroke()) {
@@ -206,15 +437,15 @@ public class LineChartView extends ChartView {
                             dot.getShadowRadius(),
                             dot.getShadowColor());
 
-                    canvas.drawCircle(dot.getX(), dot.getY(), dot.getRadius(), mStyle.mDotsStrokePaint);
+                    canvas.drawCircle(set.getX(i), set.getY(i), dot.getRadius(), mStyle.mDotsStrokePaint);
                 }
 
                 // Draw drawable
                 if (dot.getDrawable() != null) {
-                    Bitmap dotsBitmap = Tools.drawableToBitmap(dot.getDrawable());
+                    Bitmap dotsBitmap = getDotBitmap(dot.getDrawable());
                     canvas.drawBitmap(dotsBitmap,
-                            (float) (dot.getX() - dotsBitmap.getWidth() / 2.0),
-                            (float) (dot.getY() - dotsBitmap.getHeight() / 2.0),
+                            (float) (set.getX(i) - dotsBitmap.getWidth() / 2.0),
+                            (float) (set.getY(i) - dotsBitmap.getHeight() / 2.0),
                             mStyle.mDotsPaint);
                 }
             }
@@ -223,23 +454,135 @@ public class LineChartView extends ChartView {
     }
 
 
+    /**
+     * Check whether every point drawn shares the styling of the first one.
+     * Points not materialized share the set-wide styling, so usually no styling is compared.
+     */
+    private static boolean hasUniformPoints(LineSet set, Point first, int[] indices, int begin, int count) {
+        ChartEntry style;
+        for (int k = 1; k < count; k++) {
+            style = set.getEntryStyle(di(indices, begin, k));
+            if (style != first && !first.hasSameStyle(style)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Draw points sharing the same styling, configuring paints once. Plain dots, without
+     * stroke, drawable nor shadow, are drawn all at once as round points.
+     */
+    private void drawUniformPoints(Canvas canvas, LineSet set, Point dot, int[] indices, int begin, int count) {
+        final int alpha = (int) (set.getAlpha() * ChartView.Style.FULL_ALPHA);
+        int i;
+
+        if (!dot.hasStroke() && dot.getDrawable() == null && !dot.hasShadow()) {
+            if (dot.getRadius() <= 0) return;
+            final float[] coords = ensureBatchCoords(count * 2);
+            for (int k = 0; k < count; k++) {
+                i = di(indices, begin, k);
+                coords[k * 2] = set.getX(i);
+                coords[k * 2 + 1] = set.getY(i);
+            }
+            mStyle.mDotsBatchPaint.setColor(dot.getColor());
+            mStyle.mDotsBatchPaint.setAlpha(alpha);
+            mStyle.mDotsBatchPaint.setStrokeWidth(dot.getRadius() * 2);
+            canvas.drawPoints(coords, 0, count * 2, mStyle.mDotsBatchPaint);
+            return;
+        }
+
+        // Style dot
+        mStyle.mDotsPaint.setColor(dot.getColor());
+        mStyle.mDotsPaint.setAlpha(alpha);
+        applyShadow(mStyle.mDotsPaint, set.getAlpha(), dot.getShadowDx(), dot.getShadowDy(),
+                dot.getShadowRadius(), dot.getShadowColor());
+
+        // Style stroke
+        if (dot.hasStroke()) {
+            mStyle.mDotsStrokePaint.setStrokeWidth(dot.getStrokeThickness());
+            mStyle.mDotsStrokePaint.setColor(dot.getStrokeColor());
+            mStyle.mDotsStrokePaint.setAlpha(alpha);
+            applyShadow(mStyle.mDotsStrokePaint, set.getAlpha(), dot.getShadowDx(), dot.getShadowDy(),
+                    dot.getShadowRadius(), dot.getShadowColor());
+        }
+
+        final Bitmap dotsBitmap = (dot.getDrawable() != null) ? getDotBitmap(dot.getDrawable()) : null;
+        for (int k = 0; k < count; k++) {
+            i = di(indices, begin, k);
+            canvas.drawCircle(set.getX(i), set.getY(i), dot.getRadius(), mStyle.mDotsPaint);
+            if (dot.hasStroke())
+                canvas.drawCircle(set.getX(i), set.getY(i), dot.getRadius(), mStyle.mDotsStrokePaint);
+            if (dotsBitmap != null)
+                canvas.drawBitmap(dotsBitmap,
+                        (float) (set.getX(i) - dotsBitmap.getWidth() / 2.0),
+                        (float) (set.getY(i) - dotsBitmap.getHeight() / 2.0),
+                        mStyle.mDotsPaint);
+        }
+    }
+
+    /**
+     * Check whether a line can be drawn as independent segments, looking the same as its path.
+     * Smooth, dashed and filled lines need a path, and so do translucent or shadowed ones
+     * since segments overlap where they join. Thicker lines need it too, segments would
+     * leave notches where the path's joins are.
+     */
+    private static boolean hasPlainSegments(LineSet set) {
+        return !set.isSmooth() && !set.isDashed() && !set.hasFill() && !set.hasGradientFill()
+                && set.getShadowRadius() == 0 && set.getAlpha() >= 1 && Color.alpha(set.getColor()) == ChartView.Style.FULL_ALPHA
+                && set.getThickness() <= MAX_SEGMENTS_THICKNESS;
+    }
+
+    /**
+     * Draw a straight line in a single call, segment by segment, with the same butt caps
+     * as its path so the line doesn't go beyond its first and last points.
+     */
+    private void drawLineSegments(Canvas canvas, LineSet set, int[] indices, int begin, int count) {
+        if (count < 2) return;
+
+        final float[] coords = ensureBatchCoords((count - 1) * 4);
+        int i = di(indices, begin, 0);
+        float x = set.getX(i);
+        float y = set.getY(i);
+        int n = 0;
+        for (int k = 1; k < count; k++) {
+            i = di(indices, begin, k);
+            coords[n++] = x;
+            coords[n++] = y;
+            x = set.getX(i);
+            y = set.getY(i);
+            coords[n++] = x;
+            coords[n++] = y;
+        }
+
+        canvas.drawLines(coords, 0, n, mStyle.mLinePaint);
+    }
+
+    private float[] ensureBatchCoords(int length) {
+        if (mBatchCoords == null || mBatchCoords.length < length)
+            mBatchCoords = new float[length];
+        return mBatchCoords;
+    }
+
     /**
      * Responsible for drawing a (non smooth) line.
      *
-     * @param set {@link LineSet} object
+     * @param res     {@link Path} object to be rewound and filled with the line
+     * @param set     {@link LineSet} object
+     * @param indices Indices of the points to be drawn, null to draw all of them
+     * @param begin   First index to be drawn when indices is null
+     * @param count   Number of points to be drawn
      * @return {@link Path} object containing line
      */
-    Path createLinePath(LineSet set) {
+    Path createLinePath(Path res, LineSet set, int[] indices, int begin, int count) {
 
-        Path res = new Path();
-        int begin = set.getBegin();
-        int end = set.getEnd();
+        res.rewind();
+        int i;
 
-        for (int i = begin; i < end; i++) {
-            if (i == begin)
-                res.moveTo(set.getEntry(i).getX(), set.getEntry(i).getY());
+        for (int k = 0; k < count; k++) {
+            i = di(indices, begin, k);
+            if (k == 0)
+                res.moveTo(set.getX(i), set.getY(i));
             else
-                res.lineTo(set.getEntry(i).getX(), set.getEntry(i).getY());
+                res.lineTo(set.getX(i), set.getY(i));
         }
 
         return res;
@@ -249,53 +592,44 @@ public class LineChartView extends ChartView {
     /**
      * 负责使用解析的屏幕点绘制平滑的线。
      *
-     * @param set {@link LineSet} object.
+     * @param res     {@link Path} object to be rewound and filled with the line
+     * @param set     {@link LineSet} object.
+     * @param indices Indices of the points to be drawn, null to draw all of them
+     * @param begin   First index to be drawn when indices is null
+     * @param count   Number of points to be drawn
      * @return {@link Path} object containing smooth line
      */
-    Path createSmoothLinePath(LineSet set) {
-        float thisPointX;
-        float thisPointY;
-        float nextPointX;
-        float nextPointY;
-        float startDiffX;
-        float startDiffY;
-        float endDiffX;
-        float endDiffY;
-        float firstControlX;
-        float firstControlY;
-        float secondControlX;
-        float secondControlY;
-
-        Path res = new Path();
-        res.moveTo(set.getEntry(set.getBegin()).getX(), set.getEntry(set.getBegin()).getY());
-
-        int begin = set.getBegin();
-        int end = set.getEnd();
-        for (int i = begin; i < end - 1; i++) {
-
-            thisPointX = set.getEntry(i).getX();
-            thisPointY = set.getEntry(i).getY();
-
-            nextPointX = set.getEntry(i + 1).getX();
-            nextPointY = set.getEntry(i + 1).getY();
-
-            startDiffX = (nextPointX - set.getEntry(si(set.size(), i - 1)).getX());
-            startDiffY = (nextPointY - set.getEntry(si(set.size(), i - 1)).getY());
-
-            endDiffX = (set.getEntry(si(set.size(), i + 2)).getX() - thisPointX);
-            endDiffY = (set.getEntry(si(set.size(), i + 2)).getY() - thisPointY);
-
-            firstControlX = thisPointX + (SMOOTH_FACTOR * startDiffX);
-            firstControlY = thisPointY + (SMOOTH_FACTOR * startDiffY);
+    Path createSmoothLinePath(Path res, LineSet set, int[] indices, int begin, int count) {
+
+        // Drawn points, between the neighbours of both ends. Neighbours out of the drawn
+        // points fall back to the set's adjacent entries.
+        final int size = count + 2;
+        if (mSmoothXs == null || mSmoothXs.length < size) {
+            mSmoothXs = new float[size];
+            mSmoothYs = new float[size];
+            mSmoothControls = new float[4 * size];
+        }
+        int i = si(set.size(), di(indices, begin, 0) - 1);
+        mSmoothXs[0] = set.getX(i);
+        mSmoothYs[0] = set.getY(i);
+        for (int k = 0; k < count; k++) {
+            i = di(indices, begin, k);
+            mSmoothXs[k + 1] = set.getX(i);
+            mSmoothYs[k + 1] = set.getY(i);
+        }
+        i = si(set.size(), i + 1);
+        mSmoothXs[size - 1] = set.getX(i);
+        mSmoothYs[size - 1] = set.getY(i);
 
-            secondControlX = nextPointX - (SMOOTH_FACTOR * endDiffX);
-            secondControlY = nextPointY - (SMOOTH_FACTOR * endDiffY);
+        Smoothing.controls(mSmoothXs, mSmoothYs, size, SMOOTH_FACTOR, mSmoothControls);
 
+        res.rewind();
+        res.moveTo(mSmoothXs[1], mSmoothYs[1]);
+        for (int k = 0, c = 0; k < count - 1; k++, c += 4)
             res.cubicTo(
-                    firstControlX, firstControlY,
-                    secondControlX, secondControlY,
-                    nextPointX, nextPointY);
-        }
+                    mSmoothControls[c], mSmoothControls[c + 1],
+                    mSmoothControls[c + 2], mSmoothControls[c + 3],
+                    mSmoothXs[k + 2], mSmoothYs[k + 2]);
 
         return res;
     }
@@ -304,29 +638,239 @@ public class LineChartView extends ChartView {
     /**
      * Responsible for drawing line background
      *
-     * @param path {@link Path} object containing line path
-     * @param set  {@link LineSet} object.
+     * @param cache   {@link SetCache} whose fill path contains the line path
+     * @param set     {@link LineSet} object.
+     * @param indices Indices of the points drawn, null if all of them are drawn
+     * @param begin   First index drawn when indices is null
+     * @param count   Number of points drawn
      * @return {@link Path} object containing background
      */
-    private Path createBackgroundPath(Path path, LineSet set) {
+    private Path createBackgroundPath(SetCache cache, LineSet set, int[] indices, int begin, int count) {
+        final Path path = cache.fillPath;
         mStyle.mFillPaint.setAlpha((int) (set.getAlpha() * ChartView.Style.FULL_ALPHA));
 
         if (set.hasFill())
             mStyle.mFillPaint.setColor(set.getFillColor());
 
         if (set.hasGradientFill())
-            mStyle.mFillPaint.setShader(
-                    new LinearGradient(super.getInnerChartLeft(), super.getInnerChartTop(),
-                            super.getInnerChartLeft(), super.getInnerChartBottom(),
-                            set.getGradientColors(), set.getGradientPositions(), Shader.TileMode.MIRROR));
+            mStyle.mFillPaint.setShader(cache.getGradient(set, super.getInnerChartLeft(),
+                    super.getInnerChartTop(), super.getInnerChartBottom()));
+        else
+            mStyle.mFillPaint.setShader(null);
 
-        path.lineTo(set.getEntry(set.getEnd() - 1).getX(), super.getInnerChartBottom());
-        path.lineTo(set.getEntry(set.getBegin()).getX(), super.getInnerChartBottom());
+        path.lineTo(set.getX(di(indices, begin, count - 1)), super.getInnerChartBottom());
+        path.lineTo(set.getX(di(indices, begin, 0)), super.getInnerChartBottom());
         path.close();
 
         return path;
     }
 
+    /**
+     * Get the bitmap of a dot drawable, converted only the first time it's drawn
+     * while it stays in the cache.
+     *
+     * @param drawable Dot's drawable
+     * @return Bitmap to be drawn
+     */
+    private Bitmap getDotBitmap(Drawable drawable) {
+        return mDotBitmaps.get(drawable);
+    }
+
+    @Override
+    void onDigestData(ArrayList<ChartSet> data) {
+        ensureDrawBuffers(data.size());
+    }
+
+    /**
+     * Digest only the entries shaping the line of sets having many more entries within the
+     * viewport than horizontal pixels. They are selected from the set's level of detail
+     * pyramid, the minimum and maximum of each bucket of entries, so that zooming and
+     * panning huge sets only parse and draw about twice as many points as pixels.
+     */
+    @Override
+    void digestEntries(int setIndex, ChartSet set, int begin, int end) {
+        final int columns = (int) (getInnerChartRight() - getInnerChartLeft());
+        final LineSet lineSet = (LineSet) set;
+        final int from = Math.max(begin, lineSet.getBegin());
+        final int to = Math.min(end, lineSet.getEnd());
+
+        if (mDecimation == Decimation.NONE || columns < 3 || to - from <= columns * LOD_POINTS_PER_COLUMN) {
+            mLodCount[setIndex] = -1;
+            super.digestEntries(setIndex, set, begin, end);
+            return;
+        }
+
+        if (mLodIndices[setIndex] == null || mLodIndices[setIndex].length < columns * 2 + 6)
+            mLodIndices[setIndex] = new int[columns * 2 + 6];
+        final int[] indices = mLodIndices[setIndex];
+        final int count = getSetCache(setIndex).getPyramid(set).select(from, to, columns, indices);
+        for (int k = 0; k < count; k++)
+            digestEntry(set, indices[k]);
+        mLodCount[setIndex] = count;
+        mLodVersions[setIndex] = set.getVersion();
+    }
+
+    /**
+     * Select the points to be drawn for sets having more points than horizontal pixels.
+     * Clickable regions are still defined for every digested entry so that touch events
+     * resolve to the original entries.
+     */
+    @Override
+    void onDataDigested(ArrayList<ChartSet> data) {
+        final int nSets = data.size();
+        ensureDrawBuffers(nSets);
+
+        final float left = getInnerChartLeft();
+        final float width = getInnerChartRight() - left;
+        final int columns = (int) width;
+        final int first = getFirstVisibleEntry();
+        final int last = getLastVisibleEntry() + 1;
+        LineSet set;
+        int begin;
+        int end;
+        int capacity;
+        for (int s = 0; s < nSets; s++) {
+            set = (LineSet) data.get(s);
+            begin = Math.max(set.getBegin(), first);
+            end = Math.max(begin, Math.min(set.getEnd(), last));
+            mDrawBegin[s] = begin;
+            capacity = (mDecimation == Decimation.LTTB) ? columns : columns * 2 + 2;
+
+            // Values appended since the selection was made, select them again
+            if (mLodCount[s] >= 0 && mLodVersions[s] != set.getVersion())
+                digestEntries(s, set, first, last);
+
+            if (mLodCount[s] >= 0) {
+                if (mDecimation != Decimation.LTTB || mLodCount[s] <= capacity) {
+                    mDrawIndices[s] = mLodIndices[s];
+                    mDrawCount[s] = mLodCount[s];
+                    continue;
+                }
+                // Reduce the pyramid selection further
+                if (mDrawIndices[s] == null || mDrawIndices[s] == mLodIndices[s]
+                        || mDrawIndices[s].length < capacity)
+                    mDrawIndices[s] = new int[capacity];
+                copyScreenPoints(set, mLodIndices[s], mLodCount[s]);
+                mDrawCount[s] = Downsampler.lttb(mDecimationXs, mDecimationYs,
+                        0, mLodCount[s], capacity, mDrawIndices[s]);
+                for (int k = 0; k < mDrawCount[s]; k++)
+                    mDrawIndices[s][k] = mLodIndices[s][mDrawIndices[s][k]];
+                continue;
+            }
+
+            if (mDecimation == Decimation.NONE || end - begin <= capacity || columns < 3) {
+                mDrawIndices[s] = null;
+                mDrawCount[s] = end - begin;
+                continue;
+            }
+
+            if (mDrawIndices[s] == null || mDrawIndices[s] == mLodIndices[s]
+                    || mDrawIndices[s].length < capacity)
+                mDrawIndices[s] = new int[capacity];
+            copyScreenPoints(set, begin, end);
+
+            if (mDecimation == Decimation.LTTB)
+                mDrawCount[s] = Downsampler.lttb(mDecimationXs, mDecimationYs,
+                        begin, end, capacity, mDrawIndices[s]);
+            else
+                mDrawCount[s] = Downsampler.minMax(mDecimationXs, mDecimationYs,
+                        begin, end, left, width, columns, mDrawIndices[s]);
+        }
+    }
+
+    private void ensureDrawBuffers(int nSets) {
+        if (mDrawCount == null || mDrawCount.length != nSets) {
+            mDrawIndices = new int[nSets][];
+            mDrawCount = new int[nSets];
+            mDrawBegin = new int[nSets];
+            mLodIndices = new int[nSets][];
+            mLodCount = new int[nSets];
+            mLodVersions = new int[nSets];
+            Arrays.fill(mLodCount, -1);
+        }
+    }
+
+    private SetCache getSetCache(int setIndex) {
+        while (mSetCaches.size() <= setIndex)
+            mSetCaches.add(new SetCache());
+        return mSetCaches.get(setIndex);
+    }
+
+    /**
+     * Copy the screen points of a set into the decimation buffers.
+     */
+    private void copyScreenPoints(LineSet set, int begin, int end) {
+        if (mDecimationXs == null || mDecimationXs.length < end) {
+            mDecimationXs = new float[set.size()];
+            mDecimationYs = new float[set.size()];
+        }
+        for (int i = begin; i < end; i++) {
+            mDecimationXs[i] = set.getX(i);
+            mDecimationYs[i] = set.getY(i);
+        }
+    }
+
+    /**
+     * Copy the screen points of some entries of a set, one after the other,
+     * into the decimation buffers.
+     */
+    private void copyScreenPoints(LineSet set, int[] indices, int count) {
+        if (mDecimationXs == null || mDecimationXs.length < count) {
+            mDecimationXs = new float[set.size()];
+            mDecimationYs = new float[set.size()];
+        }
+        for (int k = 0; k < count; k++) {
+            mDecimationXs[k] = set.getX(indices[k]);
+            mDecimationYs[k] = set.getY(indices[k]);
+        }
+    }
+
+    /**
+     * Define how sets with more points than horizontal pixels are reduced before drawing.
+     * Only the drawn line, points and values are affected, touch events still resolve
+     * to every entry.
+     *
+     * @param decimation {@link Decimation} to be applied, NONE by default
+     * @return {@link LineChartView} self-reference.
+     */
+    public LineChartView setDecimation(@NonNull Decimation decimation) {
+        mDecimation = Preconditions.checkNotNull(decimation);
+        return this;
+    }
+
+    /**
+     * Bound the memory taken by bitmaps of dot drawables. Drawables that aren't
+     * {@link android.graphics.drawable.BitmapDrawable} are rasterized once and kept
+     * while recently drawn, up to the given number of bytes.
+     *
+     * @param maxBytes Maximum number of bytes, 4MB by default
+     * @return {@link LineChartView} self-reference.
+     */
+    public LineChartView setDotBitmapCacheSize(@IntRange(from = 1) int maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("Cache size must be greater than 0.");
+        mDotBitmaps.resize(maxBytes);
+        return this;
+    }
+
+    /**
+     * Draw lines as sparklines, for small inline charts drawn by the hundreds. Values of each
+     * set are projected straight into a reused path, without axes, labels, grid, thresholds,
+     * regions, gestures or animations. Lines are drawn straight with the set's color, thickness
+     * and alpha, and the chart must be shown again for the change to take effect.
+     *
+     * @param sparkline True to draw lines as sparklines
+     * @return {@link LineChartView} self-reference.
+     */
+    public LineChartView setSparkline(boolean sparkline) {
+        mIsSparkline = sparkline;
+        return this;
+    }
+
+    @Override
+    boolean isSparkline() {
+        return mIsSparkline;
+    }
+
     /**
      * @param radius Point's radius where touch event will be detected
      * @return {@link LineChartView} self-reference.
@@ -336,6 +880,186 @@ public class LineChartView extends ChartView {
         return this;
     }
 
+    /**
+     * 数据点多于水平像素时的抽样方式
+     */
+    public enum Decimation {
+
+        /**
+         * 绘制所有的点
+         */
+        NONE,
+
+        /**
+         * Largest-Triangle-Three-Buckets，每个像素保留一个点，保持折线的形状
+         */
+        LTTB,
+
+        /**
+         * 每列像素保留最小值和最大值，保留所有的峰值
+         */
+        MIN_MAX
+    }
+
+    /**
+     * Objects reused between frames while drawing a set.
+     * Path effect and shader are rebuilt only when the set's style or the inner chart
+     * bounds change, value strings only when the set's values change.
+     */
+    private static class SetCache {
+
+        private final Path linePath = new Path();
+
+        private final Path fillPath = new Path();
+
+        private DashPathEffect dashPathEffect;
+        private float[] dashIntervals;
+        private int dashPhase;
+
+        private LinearGradient gradient;
+        private int[] gradientColors;
+        private float[] gradientPositions;
+        private float gradientLeft;
+        private float gradientTop;
+        private float gradientBottom;
+
+        private final MinMaxPyramid pyramid = new MinMaxPyramid();
+        private float[] pyramidValues;
+        private ChartSet pyramidSet;
+        private int pyramidVersion;
+        private int pyramidPushCount;
+
+        /**
+         * Formatted values and their widths, held as a ring starting at valuesHead
+         */
+        private LineSet valuesSet;
+        private String[] values;
+        private float[] valueWidths;
+        private int valuesHead;
+        private int valuesSize;
+        private int valuesVersion;
+        private int valuesPushCount;
+        private float valuesTextSize;
+        private DecimalFormat valuesFormat;
+
+        /**
+         * Bring the level of detail pyramid up to date with a set. Values appended, or
+         * pushed, since last time are appended to it instead of building it again.
+         */
+        private MinMaxPyramid getPyramid(ChartSet set) {
+            if (pyramidSet == set && pyramidVersion == set.getVersion()) return pyramid;
+
+            final int retained = (pyramidSet == set)
+                    ? set.countRetained(pyramidVersion, pyramid.size(), pyramidPushCount) : 0;
+            if (retained > 0) {
+                pyramid.removeFirst(pyramid.size() - retained);
+                for (int i = retained; i < set.size(); i++)
+                    pyramid.append(set.getValue(i));
+            } else {
+                if (pyramidValues == null || pyramidValues.length < set.size())
+                    pyramidValues = new float[set.size()];
+                for (int i = 0; i < set.size(); i++)
+                    pyramidValues[i] = set.getValue(i);
+                pyramid.build(pyramidValues, set.size());
+            }
+            pyramidSet = set;
+            pyramidVersion = set.getVersion();
+            pyramidPushCount = set.getPushCount();
+            return pyramid;
+        }
+
+        private DashPathEffect getDashPathEffect(LineSet set) {
+            if (dashPathEffect == null
+                    || dashIntervals != set.getDashedIntervals()
+                    || dashPhase != set.getDashedPhase()) {
+                dashIntervals = set.getDashedIntervals();
+                dashPhase = set.getDashedPhase();
+                dashPathEffect = new DashPathEffect(dashIntervals, dashPhase);
+            }
+            return dashPathEffect;
+        }
+
+        private LinearGradient getGradient(LineSet set, float left, float top, float bottom) {
+            if (gradient == null
+                    || gradientColors != set.getGradientColors()
+                    || gradientPositions != set.getGradientPositions()
+                    || gradientLeft != left || gradientTop != top || gradientBottom != bottom) {
+                gradientColors = set.getGradientColors();
+                gradientPositions = set.getGradientPositions();
+                gradientLeft = left;
+                gradientTop = top;
+                gradientBottom = bottom;
+                gradient = new LinearGradient(left, top, left, bottom,
+                        gradientColors, gradientPositions, Shader.TileMode.MIRROR);
+            }
+            return gradient;
+        }
+
+        /**
+         * Format values of a set and measure them. Only values appended, or pushed,
+         * since last time are formatted as long as the format didn't change.
+         */
+        private void prepareValues(LineSet set, DecimalFormat format, Paint paint) {
+            final int size = set.size();
+            int retained = 0;
+            if (values != null && valuesSet == set
+                    && valuesTextSize == paint.getTextSize()
+                    && valuesFormat == format) {
+                if (valuesVersion == set.getVersion()) return;
+                retained = set.countRetained(valuesVersion, valuesSize, valuesPushCount);
+            }
+
+            if (retained == 0) {
+                valuesHead = 0;
+                valuesSize = 0;
+            } else {
+                // Values shifted out of the start are dropped
+                valuesHead = valueSlot(valuesSize - retained);
+            }
+            if (size != valuesSize) {
+                if (values == null || values.length < size || valuesHead != 0) {
+                    // Unroll values kept into arrays with room for every value
+                    final int capacity = Math.max(size, valuesSize + (valuesSize >> 1));
+                    final String[] newValues = new String[capacity];
+                    final float[] newWidths = new float[capacity];
+                    for (int i = 0; i < retained; i++) {
+                        newValues[i] = values[valueSlot(i)];
+                        newWidths[i] = valueWidths[valueSlot(i)];
+                    }
+                    values = newValues;
+                    valueWidths = newWidths;
+                    valuesHead = 0;
+                }
+                valuesSize = size;
+            }
+
+            int slot;
+            for (int i = retained; i < size; i++) {
+                slot = valueSlot(i);
+                values[slot] = format.format(set.getValue(i));
+                valueWidths[slot] = paint.measureText(values[slot]);
+            }
+            valuesSet = set;
+            valuesVersion = set.getVersion();
+            valuesPushCount = set.getPushCount();
+            valuesTextSize = paint.getTextSize();
+            valuesFormat = format;
+        }
+
+        private String getValue(int index) {
+            return values[valueSlot(index)];
+        }
+
+        private float getValueWidth(int index) {
+            return valueWidths[valueSlot(index)];
+        }
+
+        private int valueSlot(int index) {
+            final int slot = valuesHead + index;
+            return (slot < valuesSize) ? slot : slot - valuesSize;
+        }
+    }
+
     /**
      * Class responsible to mStyle the LineChart!
      * Can be instantiated with or without attributes.
@@ -351,6 +1075,8 @@ public class LineChartView extends ChartView {
 
         private Paint mDotsStrokePaint;
 
+        private Paint mDotsBatchPaint;
+
         private Paint mLinePaint;
 
         private Paint mFillPaint;
@@ -364,32 +1090,36 @@ public class LineChartView extends ChartView {
         }
 
         private void init() {
-            mDotsPaint = new Paint();
+            if (mDotsPaint == null) mDotsPaint = new Paint();
+            else mDotsPaint.reset();
             mDotsPaint.setStyle(Paint.Style.FILL_AND_STROKE);
             mDotsPaint.setAntiAlias(true);
 
-            mDotsStrokePaint = new Paint();
+            if (mDotsStrokePaint == null) mDotsStrokePaint = new Paint();
+            else mDotsStrokePaint.reset();
             mDotsStrokePaint.setStyle(Paint.Style.STROKE);
             mDotsStrokePaint.setAntiAlias(true);
 
-            mLinePaint = new Paint();
+            if (mDotsBatchPaint == null) mDotsBatchPaint = new Paint();
+            else mDotsBatchPaint.reset();
+            mDotsBatchPaint.setStyle(Paint.Style.STROKE);
+            mDotsBatchPaint.setStrokeCap(Paint.Cap.ROUND);
+            mDotsBatchPaint.setAntiAlias(true);
+
+            if (mLinePaint == null) mLinePaint = new Paint();
+            else mLinePaint.reset();
             mLinePaint.setStyle(Paint.Style.STROKE);
             mLinePaint.setAntiAlias(true);
 
-            mFillPaint = new Paint();
+            if (mFillPaint == null) mFillPaint = new Paint();
+            else mFillPaint.reset();
             mFillPaint.setStyle(Paint.Style.FILL);
 
-            mValuePaint = new Paint();
+            if (mValuePaint == null) mValuePaint = new Paint();
+            else mValuePaint.reset();
             mValuePaint.setAntiAlias(true);
         }
 
-        private void clean() {
-            mLinePaint = null;
-            mFillPaint = null;
-            mDotsPaint = null;
-            mValuePaint = null;
-        }
-
     }
 
 }
@@ -0,0 +1,89 @@
+package com.pengl.williamchart.view;
+
+import java.util.Arrays;
+
+/**
+ * Double buffer of set values. Producers write into the back buffer from any thread,
+ * the consumer swaps it with the front buffer and reads the values written since the
+ * previous swap. Values of a set written several times between two swaps are overwritten,
+ * so only the latest ones are read. Value arrays are recycled between swaps.
+ */
+final class ValuesBuffer {
+
+    private final Object mLock = new Object();
+
+    /**
+     * Values written by producers and whether each set has been written since last swap
+     */
+    private float[][] mBack = new float[0][];
+    private boolean[] mBackWritten = new boolean[0];
+
+    /**
+     * Values read by the consumer after a swap
+     */
+    private float[][] mFront = new float[0][];
+    private boolean[] mFrontWritten = new boolean[0];
+
+    /**
+     * Whether anything has been written since last swap
+     */
+    private boolean mIsDirty;
+
+    /**
+     * Write the values of a set, replacing any written since last swap.
+     * May be called from any thread.
+     *
+     * @param setIndex Index of set
+     * @param values   Values, copied
+     * @return True if this is the first write since last swap, meaning a swap needs to be scheduled.
+     */
+    boolean write(int setIndex, float[] values) {
+        synchronized (mLock) {
+            if (setIndex >= mBack.length) {
+                mBack = Arrays.copyOf(mBack, setIndex + 1);
+                mBackWritten = Arrays.copyOf(mBackWritten, setIndex + 1);
+            }
+            if (mBack[setIndex] == null || mBack[setIndex].length != values.length)
+                mBack[setIndex] = new float[values.length];
+            System.arraycopy(values, 0, mBack[setIndex], 0, values.length);
+            mBackWritten[setIndex] = true;
+
+            final boolean wasDirty = mIsDirty;
+            mIsDirty = true;
+            return !wasDirty;
+        }
+    }
+
+    /**
+     * Swap back and front buffers, making values written since last swap readable.
+     * To be called from the consumer thread only.
+     *
+     * @return Number of sets in front buffer.
+     */
+    int swap() {
+        synchronized (mLock) {
+            Arrays.fill(mFrontWritten, false);
+
+            final float[][] values = mFront;
+            mFront = mBack;
+            mBack = values;
+            final boolean[] written = mFrontWritten;
+            mFrontWritten = mBackWritten;
+            mBackWritten = written;
+
+            mIsDirty = false;
+            return mFront.length;
+        }
+    }
+
+    /**
+     * Values of a set written before last swap. To be called from the consumer thread only.
+     *
+     * @param setIndex Index of set
+     * @return Values, or null if set wasn't written.
+     */
+    float[] read(int setIndex) {
+        return (setIndex < mFront.length && mFrontWritten[setIndex]) ? mFront[setIndex] : null;
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.pengl.williamchart.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Axis ticks math, including steps that aren't exactly representable as floats.
+ */
+public class TicksTest {
+
+    private static final float DELTA = 1e-4f;
+
+    @Test
+    public void countStepsWithFractionalStep() {
+        assertEquals(4, Ticks.countSteps(0, 1, 0.3f));
+        // Range being a multiple of the step despite rounding
+        assertEquals(3, Ticks.countSteps(0, 0.9f, 0.3f));
+        assertEquals(1, Ticks.countSteps(0, 0, 0.3f));
+    }
+
+    @Test
+    public void fitMaximumWithFractionalStep() {
+        assertEquals(1.2f, Ticks.fitMaximum(0, 1, 0.3f), DELTA);
+        assertEquals(0.9f, Ticks.fitMaximum(0, 0.9f, 0.3f), DELTA);
+        assertEquals(0.5f, Ticks.fitMaximum(-0.4f, 0.3f, 0.3f), DELTA);
+    }
+
+    @Test
+    public void valuesWithFractionalStep() {
+        assertArrayEquals(new float[]{0, 0.3f, 0.6f, 0.9f}, Ticks.values(0, 0.9f, 0.3f), DELTA);
+    }
+
+    @Test
+    public void niceStepAndBordersAcrossZero() {
+        final float step = Ticks.niceStep(-7, 23, 5);
+        assertEquals(10, step, DELTA);
+        assertArrayEquals(new float[]{-10, 30}, Ticks.niceBorders(-7, 23, step), DELTA);
+    }
+
+    @Test
+    public void bordersOfEqualValues() {
+        assertArrayEquals(new float[]{0, 1}, Ticks.borders(0, 0), DELTA);
+        assertArrayEquals(new float[]{0, 5}, Ticks.borders(5, 5), DELTA);
+        assertArrayEquals(new float[]{-3, 0}, Ticks.borders(-3, -3), DELTA);
+    }
+
+}
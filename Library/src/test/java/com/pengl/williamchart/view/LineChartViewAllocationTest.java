@@ -0,0 +1,73 @@
+package com.pengl.williamchart.view;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import com.pengl.williamchart.model.LineSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Drawing lines whose data and style don't change must not allocate once caches are warm.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@Config(sdk = 34)
+public class LineChartViewAllocationTest {
+
+    private static final int SIZE = 500;
+
+    private static final int WARM_UP_FRAMES = 5;
+
+    private static final int FRAMES = 20;
+
+    private LineChartView mChart;
+
+    private Canvas mCanvas;
+
+    @Before
+    public void setUp() {
+        mChart = new LineChartView(RuntimeEnvironment.getApplication());
+
+        // Plain line, drawn as batched segments and dots
+        mChart.addData(new LineSet(RenderBenchmark.syntheticLabels(SIZE), RenderBenchmark.syntheticValues(SIZE, 1))
+                .setColor(Color.BLUE)
+                .setThickness(1)
+                .setDotsRadius(4));
+
+        // Styled line, drawn through its cached path, dash effect, gradient and value strings
+        mChart.addData(new LineSet(RenderBenchmark.syntheticLabels(SIZE), RenderBenchmark.syntheticValues(SIZE, 2))
+                .setColor(Color.RED)
+                .setSmooth(true)
+                .setDashed(new float[]{10, 10})
+                .setGradientFill(new int[]{Color.RED, Color.TRANSPARENT})
+                .setEnableDrawValue(true));
+
+        final RenderBenchmark benchmark = new RenderBenchmark(mChart, 1080, 720);
+        mChart.show();
+        benchmark.prepare();
+        mCanvas = benchmark.getCanvas();
+    }
+
+    @Test
+    public void steadyStateFramesDontAllocate() {
+        for (int i = 0; i < WARM_UP_FRAMES; i++)
+            mChart.onDrawChart(mCanvas, mChart.getData());
+
+        final long bytes = RenderBenchmark.allocatedBytes();
+        for (int i = 0; i < FRAMES; i++)
+            mChart.onDrawChart(mCanvas, mChart.getData());
+
+        assertEquals("Bytes allocated by " + FRAMES + " frames",
+                0, RenderBenchmark.allocatedBytes() - bytes);
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.pengl.williamchart.view;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View.MeasureSpec;
+import android.view.ViewGroup.LayoutParams;
+
+import com.pengl.williamchart.animation.Animation;
+
+import org.robolectric.Robolectric;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Offscreen benchmark of whole frames of a chart under Robolectric. The chart is attached to
+ * an activity, laid out, prepared through its pre draw listener and drawn into a bitmap,
+ * measuring the time and the bytes allocated by every frame. Meant to run with native graphics.
+ */
+final class RenderBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final ChartView mChart;
+
+    private final Bitmap mBitmap;
+
+    private final Canvas mCanvas;
+
+    /**
+     * Attach a chart, with its data added, and lay it out.
+     *
+     * @param chart  Chart to be benchmarked
+     * @param width  Width of chart in pixels
+     * @param height Height of chart in pixels
+     */
+    RenderBenchmark(ChartView chart, int width, int height) {
+        mChart = chart;
+        final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        activity.setContentView(chart, new LayoutParams(width, height));
+
+        mChart.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+        mChart.layout(0, 0, width, height);
+        mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+    }
+
+    /**
+     * Prepare the chart as before its first draw. Chart must have been shown beforehand.
+     *
+     * @return Time spent preparing the chart, in nanoseconds.
+     */
+    long prepare() {
+        final long start = System.nanoTime();
+        mChart.getViewTreeObserver().dispatchOnPreDraw();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Draw the chart a number of times, as it is.
+     *
+     * @param nFrames Number of frames to be drawn
+     * @return Measures of every frame.
+     */
+    Result drawFrames(int nFrames) {
+        final Result result = new Result(nFrames);
+        for (int i = 0; i < nFrames; i++)
+            drawFrame(result, i);
+        return result;
+    }
+
+    /**
+     * Play the chart's animation, drawing a frame every interval until it ends.
+     *
+     * @param anim          Animation being played by the chart
+     * @param frameInterval Time between frames
+     * @param maxFrames     Maximum number of frames drawn
+     * @return Measures of every frame.
+     */
+    Result drawAnimation(Animation anim, Duration frameInterval, int maxFrames) {
+        final Result result = new Result(maxFrames);
+        int frame = 0;
+        while (anim.isPlaying() && frame < maxFrames) {
+            shadowOf(mChart.getContext().getMainLooper()).idleFor(frameInterval);
+            drawFrame(result, frame++);
+        }
+        return result.truncate(frame);
+    }
+
+    private void drawFrame(Result result, int frame) {
+        mBitmap.eraseColor(Color.TRANSPARENT);
+        final long bytes = allocatedBytes();
+        final long start = System.nanoTime();
+        mChart.draw(mCanvas);
+        result.mFrameNanos[frame] = System.nanoTime() - start;
+        result.mFrameBytes[frame] = allocatedBytes() - bytes;
+    }
+
+    Canvas getCanvas() {
+        return mCanvas;
+    }
+
+    /**
+     * @return Bytes allocated by the current thread so far.
+     */
+    static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Random walk to be used as values of a synthetic dataset.
+     *
+     * @param size Number of values
+     * @param seed Seed of the random generator, the same seed giving the same values
+     * @return Values.
+     */
+    static float[] syntheticValues(int size, long seed) {
+        final Random random = new Random(seed);
+        final float[] result = new float[size];
+        float value = 0;
+        for (int i = 0; i < size; i++) {
+            value += random.nextFloat() * 2 - 1;
+            result[i] = value;
+        }
+        return result;
+    }
+
+    /**
+     * Labels to be used along with synthetic values.
+     *
+     * @param size Number of labels
+     * @return Labels, the index of each one.
+     */
+    static String[] syntheticLabels(int size) {
+        final String[] result = new String[size];
+        for (int i = 0; i < size; i++)
+            result[i] = String.valueOf(i);
+        return result;
+    }
+
+    /**
+     * Time and bytes allocated of every frame drawn.
+     */
+    static final class Result {
+
+        private long[] mFrameNanos;
+
+        private long[] mFrameBytes;
+
+        Result(int nFrames) {
+            mFrameNanos = new long[nFrames];
+            mFrameBytes = new long[nFrames];
+        }
+
+        private Result truncate(int nFrames) {
+            mFrameNanos = Arrays.copyOf(mFrameNanos, nFrames);
+            mFrameBytes = Arrays.copyOf(mFrameBytes, nFrames);
+            return this;
+        }
+
+        int getFrameCount() {
+            return mFrameNanos.length;
+        }
+
+        /**
+         * @return Median time of frames, in nanoseconds.
+         */
+        long getMedianNanos() {
+            if (mFrameNanos.length == 0) return 0;
+            final long[] sorted = mFrameNanos.clone();
+            Arrays.sort(sorted);
+            return sorted[sorted.length / 2];
+        }
+
+        /**
+         * @return Time of the slowest frame, in nanoseconds.
+         */
+        long getMaxNanos() {
+            long result = 0;
+            for (long nanos : mFrameNanos)
+                result = Math.max(result, nanos);
+            return result;
+        }
+
+        /**
+         * @return Bytes allocated by all frames.
+         */
+        long getTotalBytes() {
+            long result = 0;
+            for (long bytes : mFrameBytes)
+                result += bytes;
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return getFrameCount() + " frames, median " + getMedianNanos() / 1000 + "us, max "
+                    + getMaxNanos() / 1000 + "us, " + getTotalBytes() + " bytes allocated";
+        }
+
+    }
+
+}
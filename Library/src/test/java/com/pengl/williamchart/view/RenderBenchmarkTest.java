@@ -0,0 +1,124 @@
+package com.pengl.williamchart.view;
+
+import android.content.Context;
+
+import com.pengl.williamchart.animation.Animation;
+import com.pengl.williamchart.model.BarSet;
+import com.pengl.williamchart.model.ChartSet;
+import com.pengl.williamchart.model.LineSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * End to end render benchmarks of every chart, reporting the time and bytes allocated per
+ * frame, both static and while the enter animation plays. Only run when the chart.benchmark
+ * system property is set, entry counts are taken from chart.benchmark.sizes.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@Config(sdk = 34)
+public class RenderBenchmarkTest {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 720;
+
+    private static final int FRAMES = 30;
+
+    private static final int MAX_ANIMATION_FRAMES = 120;
+
+    private static final Duration FRAME_INTERVAL = Duration.ofMillis(16);
+
+    private Context mContext;
+
+    private int[] mSizes;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Boolean.getBoolean("chart.benchmark"));
+        mContext = RuntimeEnvironment.getApplication();
+        final String[] sizes = System.getProperty("chart.benchmark.sizes", "1000").split(",");
+        mSizes = new int[sizes.length];
+        for (int i = 0; i < sizes.length; i++)
+            mSizes[i] = Integer.parseInt(sizes[i].trim());
+    }
+
+    @Test
+    public void lineChart() {
+        run("LineChartView", LineChartView::new,
+                size -> new LineSet(RenderBenchmark.syntheticLabels(size), RenderBenchmark.syntheticValues(size, 1)), 1);
+    }
+
+    @Test
+    public void barChart() {
+        run("BarChartView", BarChartView::new, RenderBenchmarkTest::barSet, 1);
+    }
+
+    @Test
+    public void barChartHorizontal() {
+        run("BarChartViewHorizontal", BarChartViewHorizontal::new, RenderBenchmarkTest::barSet, 1);
+    }
+
+    @Test
+    public void barChartStack() {
+        run("BarChartViewStack", BarChartViewStack::new, RenderBenchmarkTest::barSet, 3);
+    }
+
+    @Test
+    public void barChartStackHorizontal() {
+        run("BarChartViewStackHorizontal", BarChartViewStackHorizontal::new, RenderBenchmarkTest::barSet, 3);
+    }
+
+    private static ChartSet barSet(int size) {
+        return new BarSet(RenderBenchmark.syntheticLabels(size), RenderBenchmark.syntheticValues(size, size));
+    }
+
+    /**
+     * Benchmark a chart at every size, drawing it as it is and while animating.
+     */
+    private void run(String name, Function<Context, ChartView> chartFactory,
+                     IntFunction<ChartSet> setFactory, int nSets) {
+        for (int size : mSizes) {
+            ChartView chart = chartFactory.apply(mContext);
+            for (int i = 0; i < nSets; i++)
+                chart.addData(setFactory.apply(size));
+            RenderBenchmark benchmark = new RenderBenchmark(chart, WIDTH, HEIGHT);
+            chart.show();
+            final long prepareNanos = benchmark.prepare();
+            final RenderBenchmark.Result frames = benchmark.drawFrames(FRAMES);
+            report(name, size, "static", prepareNanos, frames);
+
+            final Animation anim = new Animation(1000);
+            chart = chartFactory.apply(mContext);
+            for (int i = 0; i < nSets; i++)
+                chart.addData(setFactory.apply(size));
+            benchmark = new RenderBenchmark(chart, WIDTH, HEIGHT);
+            chart.show(anim);
+            final long animatedPrepareNanos = benchmark.prepare();
+            final RenderBenchmark.Result animation =
+                    benchmark.drawAnimation(anim, FRAME_INTERVAL, MAX_ANIMATION_FRAMES);
+            report(name, size, "animated", animatedPrepareNanos, animation);
+            assertTrue(name + " drew no animation frame", animation.getFrameCount() > 0);
+        }
+    }
+
+    private static void report(String name, int size, String mode, long prepareNanos,
+                               RenderBenchmark.Result result) {
+        System.out.println(name + " " + size + " entries " + mode + ": prepared in "
+                + prepareNanos / 1000 + "us, " + result);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.pengl.williamchart.benchmark;
+
+import com.pengl.williamchart.util.EntryTimings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry timings calculated by Animation before playing, through
+ * calculateEntriesInitTime and calculateEntriesDuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AnimationBenchmark {
+
+    private static final long DURATION = 1000;
+
+    private static final float OVERLAP_FACTOR = 0.5f;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * Shuffled animation order
+     */
+    private int[] mOrder;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        mOrder = new int[size];
+        for (int i = 0; i < size; i++)
+            mOrder[i] = i;
+        for (int i = size - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int swap = mOrder[i];
+            mOrder[i] = mOrder[j];
+            mOrder[j] = swap;
+        }
+    }
+
+    @Benchmark
+    public long[] calculateEntriesInitTime() {
+        return EntryTimings.initTimes(size, DURATION, OVERLAP_FACTOR, null);
+    }
+
+    @Benchmark
+    public long[] calculateEntriesInitTimeOrdered() {
+        return EntryTimings.initTimes(size, DURATION, OVERLAP_FACTOR, mOrder);
+    }
+
+    @Benchmark
+    public long calculateEntriesDuration() {
+        return EntryTimings.duration(size, DURATION, OVERLAP_FACTOR);
+    }
+
+}
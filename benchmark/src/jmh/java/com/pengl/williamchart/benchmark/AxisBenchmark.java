@@ -0,0 +1,83 @@
+package com.pengl.williamchart.benchmark;
+
+import com.pengl.williamchart.util.Ticks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Axis math done by AxisRenderer and its subclasses: borders out of the values of every
+ * entry (findBorders), labels values between them (calculateValues) and projection of
+ * values into screen coordinates (parsePos).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AxisBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private float[] mValues;
+
+    private float[] mPositions;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        mValues = new float[size];
+        for (int i = 0; i < size; i++)
+            mValues[i] = (random.nextFloat() - 0.25f) * size;
+        mPositions = new float[size];
+    }
+
+    /**
+     * Extent of every value, as a set does when its extent is out of date, then nice borders.
+     */
+    @Benchmark
+    public float[] findBorders() {
+        final float min = mValues[Ticks.minIndex(mValues, 0, size)];
+        final float max = mValues[Ticks.maxIndex(mValues, 0, size)];
+        final float[] borders = Ticks.borders(min, max);
+        final float step = Ticks.niceStep(borders[0], borders[1], 5);
+        return Ticks.niceBorders(borders[0], borders[1], step);
+    }
+
+    /**
+     * One label per entry.
+     */
+    @Benchmark
+    public float[] calculateValues() {
+        return Ticks.values(0, size, 1);
+    }
+
+    /**
+     * Vertical position of every entry, as YRenderer.parsePos with values handled.
+     */
+    @Benchmark
+    public float[] parsePos() {
+        final float bottom = 1000;
+        final float min = -size / 4f;
+        final float valueStep = size / 5f;
+        final float screenStep = 180;
+        for (int i = 0; i < size; i++)
+            mPositions[i] = (float) (bottom - Ticks.offset(mValues[i], min, valueStep, screenStep));
+        return mPositions;
+    }
+
+}
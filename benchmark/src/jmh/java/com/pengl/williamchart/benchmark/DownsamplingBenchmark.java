@@ -0,0 +1,90 @@
+package com.pengl.williamchart.benchmark;
+
+import com.pengl.williamchart.util.Downsampler;
+import com.pengl.williamchart.util.MinMaxPyramid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selection of the points of a line drawn by LineChartView when it has more points than
+ * horizontal pixels: either downsampling every point (lttb, minMax) or building the level
+ * of detail pyramid once and selecting out of it (buildPyramid, selectFromPyramid).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DownsamplingBenchmark {
+
+    /**
+     * Width, in pixels, of the chart, one column per pixel
+     */
+    private static final int COLUMNS = 1080;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private float[] mXs;
+
+    private float[] mYs;
+
+    private int[] mOut;
+
+    private MinMaxPyramid mPyramid;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        mXs = new float[size];
+        mYs = new float[size];
+        float y = 500;
+        for (int i = 0; i < size; i++) {
+            mXs[i] = i * (float) COLUMNS / size;
+            y += random.nextFloat() * 2 - 1;
+            mYs[i] = y;
+        }
+        mOut = new int[Math.max(size, COLUMNS * 2 + 6)];
+        mPyramid = new MinMaxPyramid();
+        mPyramid.build(mYs, size);
+    }
+
+    @Benchmark
+    public int lttb() {
+        return Downsampler.lttb(mXs, mYs, 0, size, COLUMNS * 2, mOut);
+    }
+
+    @Benchmark
+    public int minMax() {
+        return Downsampler.minMax(mXs, mYs, 0, size, 0, COLUMNS, COLUMNS, mOut);
+    }
+
+    @Benchmark
+    public MinMaxPyramid buildPyramid() {
+        mPyramid.build(mYs, size);
+        return mPyramid;
+    }
+
+    /**
+     * Points shaping a range starting and ending within buckets, as when the viewport is panned.
+     */
+    @Benchmark
+    public int selectFromPyramid() {
+        return mPyramid.select(size / 7, size - size / 5, COLUMNS, mOut);
+    }
+
+}
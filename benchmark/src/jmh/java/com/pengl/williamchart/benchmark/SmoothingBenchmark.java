@@ -0,0 +1,62 @@
+package com.pengl.williamchart.benchmark;
+
+import com.pengl.williamchart.util.Smoothing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control points of every segment of a smooth line, as LineChartView.createSmoothLinePath
+ * computes them before adding them to its path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SmoothingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private float[] mXs;
+
+    private float[] mYs;
+
+    /**
+     * Both control points of every segment, interleaved, first and last point being neighbours only
+     */
+    private float[] mControls;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        mXs = new float[size];
+        mYs = new float[size];
+        for (int i = 0; i < size; i++) {
+            mXs[i] = i * 1000f / size;
+            mYs[i] = random.nextFloat() * 1000;
+        }
+        mControls = new float[(size - 3) * 4];
+    }
+
+    @Benchmark
+    public float[] controlPoints() {
+        Smoothing.controls(mXs, mYs, size, Smoothing.DEFAULT_FACTOR, mControls);
+        return mControls;
+    }
+
+}
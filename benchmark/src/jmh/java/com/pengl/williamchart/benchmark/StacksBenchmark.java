@@ -0,0 +1,60 @@
+package com.pengl.williamchart.benchmark;
+
+import com.pengl.williamchart.util.Stacks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extent of stacked bars, as BaseStackBarChartView calculates it when every index changed:
+ * stack sums of every index across sets, then the extent fitting all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StacksBenchmark {
+
+    private static final int SETS = 4;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private float[][] mValues;
+
+    private float[] mPositive;
+
+    private float[] mNegative;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        mValues = new float[SETS][size];
+        for (int j = 0; j < SETS; j++)
+            for (int i = 0; i < size; i++)
+                mValues[j][i] = (random.nextFloat() - 0.25f) * 100;
+        mPositive = new float[size];
+        mNegative = new float[size];
+    }
+
+    @Benchmark
+    public int[] stackExtent() {
+        Stacks.sum(mValues, SETS, null, size, mPositive, mNegative);
+        return Stacks.extent(mPositive, mNegative, size);
+    }
+
+}